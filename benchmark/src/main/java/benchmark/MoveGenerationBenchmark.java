@@ -0,0 +1,117 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the public ChessGame calls the server makes on every move,
+ * on each position in {@link Positions}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Param({Positions.START, Positions.KIWIPETE, Positions.EN_PASSANT, Positions.PROMOTION})
+    public String position;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private final List<ChessPosition> ownPieces = new ArrayList<>();
+    private final int[] moves = new int[ChessGame.MAX_MOVES];
+    private ChessMove firstMove;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Positions.load(position);
+        board = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    ownPieces.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        game.generateLegalMoves(moves);
+        firstMove = PackedMove.toChessMove(moves[0]);
+    }
+
+    /**
+     * validMoves for every piece of the side to move, the way a client asks
+     * for the moves of the whole position.
+     */
+    @Benchmark
+    public int validMoves() {
+        int count = 0;
+        for (ChessPosition start : ownPieces) {
+            Collection<ChessMove> pieceMoves = game.validMoves(start);
+            count += pieceMoves.size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return game.generateLegalMoves(moves);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    /**
+     * A validated move, including the end-of-game checks that follow it, and
+     * the takeback that returns to the benchmark position.
+     */
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        game.makeMove(firstMove);
+        game.unmakeMove();
+        return game;
+    }
+
+    @Benchmark
+    public ChessGame makeUnmakePacked() {
+        game.makeMove(moves[0]);
+        game.unmakeMove();
+        return game;
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        board.resetBoard();
+        return board;
+    }
+}
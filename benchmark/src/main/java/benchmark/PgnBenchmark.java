@@ -0,0 +1,96 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.PgnWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PGN reading and writing in games per second, over an archive of random
+ * games of up to 100 moves a side held in memory, so the numbers are the
+ * parser's and not the disk's.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PgnBenchmark {
+
+    private static final int GAMES = 200;
+    private static final int MAX_PLIES = 200;
+
+    private final List<PgnGame> games = new ArrayList<>(GAMES);
+    private String archive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] buffer = new int[ChessGame.MAX_MOVES];
+        for (int i = 0; i < GAMES; i++) {
+            ChessGame game = new ChessGame();
+            List<ChessMove> moves = new ArrayList<>(MAX_PLIES);
+            for (int ply = 0; ply < MAX_PLIES; ply++) {
+                int count = game.generateLegalMoves(buffer);
+                if (count == 0) {break;}
+                int move = buffer[random.nextInt(count)];
+                moves.add(PackedMove.toChessMove(move));
+                game.makeMove(move);
+            }
+            games.add(new PgnGame(Map.of("Event", "Game " + i), moves, PgnGame.UNFINISHED));
+        }
+        StringWriter out = new StringWriter();
+        writeAll(out);
+        archive = out.toString();
+    }
+
+    private void writeAll(Writer out) throws IOException {
+        PgnWriter writer = new PgnWriter(out);
+        for (PgnGame game : games) {
+            writer.write(game);
+        }
+        writer.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int read() throws IOException {
+        int moves = 0;
+        PgnReader reader = new PgnReader(new StringReader(archive));
+        for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+            moves += game.moves().size();
+        }
+        return moves;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public void write() throws IOException {
+        writeAll(Writer.nullWriter());
+    }
+}
@@ -0,0 +1,31 @@
+package benchmark;
+
+import chess.ChessGame;
+
+/**
+ * The positions every benchmark runs on, by name. Besides the starting
+ * position they are the usual perft suite: Kiwipete, which has every kind of
+ * move in one position, an endgame full of en passant pins, and a position
+ * where both sides can promote.
+ */
+final class Positions {
+
+    static final String START = "start";
+    static final String KIWIPETE = "kiwipete";
+    static final String EN_PASSANT = "enPassant";
+    static final String PROMOTION = "promotion";
+
+    private Positions() {
+    }
+
+    static ChessGame load(String name) {
+        return ChessGame.fromFen(switch (name) {
+            case START -> "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+            case KIWIPETE -> "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+            // black's c-pawn has just been pushed two squares, so b5xc6 has to be tried and found pinned
+            case EN_PASSANT -> "8/8/3p4/KPp4r/1R3p1k/8/4P1P1/8 w - c6 0 2";
+            case PROMOTION -> "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1";
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        });
+    }
+}
@@ -2,12 +2,14 @@ package facade;
 
 import com.google.gson.Gson;
 import exception.ResponseException;
+import model.GameQuery;
 import requests.*;
 import results.*;
 
 
 import java.net.*;
 import java.net.http.*;
+import java.nio.charset.StandardCharsets;
 
 public class ServerFacade {
 
@@ -53,7 +55,7 @@ public class ServerFacade {
     public ListGamesResult listGames(ListGamesRequest req) throws ResponseException {
         return http(
                 "GET",
-                "/game",
+                "/game" + queryString(req.query()),
                 null,
                 ListGamesResult.class,
                 req.authToken()
@@ -91,6 +93,26 @@ public class ServerFacade {
     }
     // -------------helper functions-------------------------------------
 
+    private static String queryString(GameQuery query) {
+        StringBuilder params = new StringBuilder("?limit=").append(query.limit());
+        if (query.after() != null) {
+            params.append("&after=").append(query.after());
+        }
+        if (query.newestFirst()) {
+            params.append("&order=desc");
+        }
+        if (query.status() != null) {
+            params.append("&status=").append(query.status().name().toLowerCase());
+        }
+        if (query.player() != null) {
+            params.append("&player=").append(URLEncoder.encode(query.player(), StandardCharsets.UTF_8));
+        }
+        if (query.namePrefix() != null) {
+            params.append("&name=").append(URLEncoder.encode(query.namePrefix(), StandardCharsets.UTF_8));
+        }
+        return params.toString();
+    }
+
     private <T> T http(String method, String path, Object body, Class<T> responseType, String authToken)
             throws ResponseException {
         HttpRequest request = buildRequest(method, path, body, authToken);
@@ -3,6 +3,7 @@ package ui;
 import chess.*;
 import facade.ServerFacade;
 import model.GameData;
+import model.GameSummary;
 import ui.websocket.WebSocketCommunicator;
 import websocket.commands.UserGameCommand;
 import websocket.messages.*;
@@ -18,18 +19,20 @@ public class GameplayUI {
     private final Scanner scanner = new Scanner(System.in);
     private final ServerFacade facade;
     private final String authToken;
+    // null until the server sends the game after CONNECT
     private GameData game;
     private final int gameID;
+    private final String gameName;
     private final String perspective;
 
     private final WebSocketCommunicator ws;
     private boolean running = true;
 
-    public GameplayUI(ServerFacade facade, String authToken, GameData gameData, String color, WebSocketCommunicator ws) {
+    public GameplayUI(ServerFacade facade, String authToken, GameSummary summary, String color, WebSocketCommunicator ws) {
         this.facade = facade;
         this.authToken = authToken;
-        this.gameID = gameData.gameID();
-        this.game = gameData;
+        this.gameID = summary.gameID();
+        this.gameName = summary.gameName();
         this.perspective = color.toLowerCase();
         this.ws = ws;
 
@@ -37,7 +40,7 @@ public class GameplayUI {
     }
 
     public void show() {
-        System.out.println("\nEntering game: " + game.gameName());
+        System.out.println("\nEntering game: " + gameName);
         System.out.println("Type 'Help' for options.\n");
 
         ws.setOnMessage(this::handleServerMessage);
@@ -47,9 +50,7 @@ public class GameplayUI {
                 authToken,
                 gameID
         ));
-
-        // Set the board
-        drawBoard();
+        // the board is drawn when the game arrives
 
         while (running) {
             handleUserInput(scanner.nextLine().trim().toLowerCase());
@@ -82,6 +83,10 @@ public class GameplayUI {
     }
 
     private void drawBoard() {
+        if (game == null) {
+            System.out.println("Game not loaded yet");
+            return;
+        }
         ChessBoard board = game.game().getBoard();
 
         System.out.println();
@@ -98,6 +103,10 @@ public class GameplayUI {
     }
 
     private void doMove() {
+        if (game == null) {
+            System.out.println("Game not loaded yet");
+            return;
+        }
         System.out.print("Enter start then end point (e.g.,c2 a2): ");
         String[] fields = scanner.nextLine().trim().split(" ");
         if (fields.length != 2) {
@@ -240,7 +249,7 @@ public class GameplayUI {
         if (col < 1 || col > 8 || row < 1 || row > 8) {
             return null;
         }
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     private void drawWhitePerspective(ChessBoard board) {
@@ -276,7 +285,7 @@ public class GameplayUI {
     }
 
     private void printSquare(ChessBoard board, int row, int col) {
-        ChessPosition pos = new ChessPosition(row, col);
+        ChessPosition pos = ChessPosition.of(row, col);
         ChessPiece piece = board.getPiece(pos);
 
         boolean lightSquare = ((row + col) % 2 == 0);
@@ -348,7 +357,7 @@ public class GameplayUI {
                                   int col,
                                   ChessPosition selected,
                                   HashSet<ChessPosition> destinations) {
-        ChessPosition pos = new ChessPosition(row, col);
+        ChessPosition pos = ChessPosition.of(row, col);
         ChessPiece piece = board.getPiece(pos);
 
         boolean isSelected = pos.equals(selected);
@@ -2,8 +2,10 @@ package ui.menu;
 
 import exception.ResponseException;
 import facade.ServerFacade;
-import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 import requests.*;
+import results.ListGamesResult;
 import ui.GameplayUI;
 import ui.websocket.WebSocketCommunicator;
 
@@ -16,7 +18,9 @@ public class PostloginUI {
     private final Scanner scanner = new Scanner(System.in);
     private final ServerFacade facade;
     private final String authToken;
-    private List<GameData> currentGames = new ArrayList<>();
+    private List<GameSummary> currentGames = new ArrayList<>();
+    // where the next page of the list starts, or null if the last page was shown
+    private Integer nextCursor;
 
 
     public PostloginUI(ServerFacade facade, String authToken) {
@@ -40,6 +44,7 @@ public class PostloginUI {
                     case "3" -> listGamesSafe();
                     case "4" -> playGameSafe();
                     case "5" -> observeGameSafe();
+                    case "6" -> moreGamesSafe();
                     default -> System.out.println("Invalid option");
                 }
             } catch (ResponseException e) {
@@ -59,6 +64,7 @@ public class PostloginUI {
         System.out.println("3    | Lists all current games");
         System.out.println("4    | Joins a game");
         System.out.println("5    | Watches a game");
+        System.out.println("6    | Lists more games");
     }
 
     private void createGameSafe() {
@@ -83,18 +89,44 @@ public class PostloginUI {
         }
     }
     private void listGames() throws ResponseException {
-        currentGames = new ArrayList<>(facade.listGames(new ListGamesRequest(authToken)).games());
+        currentGames = new ArrayList<>();
+        showPage(GameQuery.firstPage());
 
         if (currentGames.isEmpty()) {
             System.out.println("No games active.");
-            return;
         }
-        for (int i = 0; i < currentGames.size(); i++) {
-            GameData g = currentGames.get(i);
-            String status = g.whiteUsername() != null && g.blackUsername() != null ? "In progress" : "Waiting";
+    }
+
+    private void moreGamesSafe() {
+        try {
+            if (nextCursor == null) {
+                System.out.println("No more games. Enter 3 to list from the start.");
+                return;
+            }
+            showPage(GameQuery.firstPage().after(nextCursor));
+        } catch (ResponseException e) {
+            System.out.println("Could not list games: " + e.getMessage());
+        }
+    }
+
+    // numbers carry on from the games already listed, so any of them can be joined
+    private void showPage(GameQuery query) throws ResponseException {
+        ListGamesResult page = facade.listGames(new ListGamesRequest(authToken, query));
+        nextCursor = page.nextCursor();
+        for (GameSummary g : page.games()) {
+            currentGames.add(g);
+            String status = switch (GameQuery.statusOf(g)) {
+                case OPEN -> "Waiting";
+                case IN_PROGRESS -> "In progress";
+                case FINISHED -> "Finished";
+            };
             String white = g.whiteUsername() != null ? g.whiteUsername() : "None";
             String black = g.blackUsername() != null ? g.blackUsername() : "None";
-            System.out.printf("%d: %s [%s] | White: %s | Black: %s%n", i + 1, g.gameName(), status, white, black);
+            System.out.printf("%d: %s [%s] | White: %s | Black: %s%n",
+                    currentGames.size(), g.gameName(), status, white, black);
+        }
+        if (nextCursor != null) {
+            System.out.println("Enter 6 for more games.");
         }
     }
 
@@ -116,7 +148,7 @@ public class PostloginUI {
             return;
         }
 
-        GameData gameData = currentGames.get(index);
+        GameSummary gameData = currentGames.get(index);
 
         System.out.print("Choose color (white/black): ");
         String color = scanner.nextLine();
@@ -153,7 +185,7 @@ public class PostloginUI {
             return;
         }
 
-        GameData gameData = currentGames.get(index);
+        GameSummary gameData = currentGames.get(index);
 
         try {
             String serverUrl = "http://localhost:8080";
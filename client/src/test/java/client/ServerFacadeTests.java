@@ -3,7 +3,7 @@ package client;
 import facade.ServerFacade;
 import exception.ResponseException;
 
-import model.GameData;
+import model.GameSummary;
 import org.junit.jupiter.api.*;
 import server.Server;
 
@@ -116,7 +116,7 @@ public class ServerFacadeTests {
         Assertions.assertNotNull(result);
         Assertions.assertEquals(2, result.games().size());
 
-        var games = result.games().toArray(new GameData[0]);
+        var games = result.games().toArray(new GameSummary[0]);
 
         Assertions.assertEquals("MyGame1", games[0].gameName());
         Assertions.assertEquals("MyGame2", games[1].gameName());
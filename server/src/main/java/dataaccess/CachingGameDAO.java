@@ -0,0 +1,383 @@
+package dataaccess;
+
+import chess.ChessGame;
+import dataaccess.DAOInterfaces.GameDAOInterface;
+import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the games being played in memory in front of another game DAO, so a
+ * move costs neither a SELECT and JSON parse to load the game nor a JSON dump
+ * and UPDATE to save it.
+ * <p>
+ * The cache is authoritative: {@link #findGame} hands out the cached
+ * {@link GameData}, and {@link #updateGame} only records a copy of the game to
+ * be written. A background thread writes each changed game once per
+ * {@link Settings#flushDelay()}, however many moves were made in between.
+ * Finished games are handed to that thread at once, and games not in the
+ * cache are written straight through.
+ * Games not looked at for {@link Settings#idleTimeout()}, and the least
+ * recently used games past {@link Settings#capacity()}, are dropped once their
+ * changes are written. {@link #close()} writes whatever is still pending.
+ */
+public class CachingGameDAO implements GameDAOInterface, AutoCloseable {
+
+    /**
+     * @param capacity    most games kept in memory, unless more have unwritten changes
+     * @param flushDelay  longest a change waits before it is written, not counting
+     *                    the write itself
+     * @param idleTimeout how long a game nobody looked at stays in memory
+     */
+    public record Settings(int capacity, Duration flushDelay, Duration idleTimeout) {
+        public Settings {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Cache capacity must be at least 1");
+            }
+            if (flushDelay.isNegative() || flushDelay.isZero() || idleTimeout.isNegative() || idleTimeout.isZero()) {
+                throw new IllegalArgumentException("Cache timeouts must be positive");
+            }
+        }
+
+        public static Settings defaults() {
+            return new Settings(1000, Duration.ofMillis(500), Duration.ofMinutes(30));
+        }
+    }
+
+    private static final class Entry {
+        final int gameID;
+        // guarded by the cache
+        GameData data;
+        GameData pending;
+        long version;
+        long lastAccess;
+        // records data held before a join or leave, which callers that read them may
+        // still pass back after a move
+        final Set<GameData> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Entry(GameData data) {
+            this.gameID = data.gameID();
+            this.data = data;
+        }
+    }
+
+    private final GameDAOInterface delegate;
+    private final Settings settings;
+    // least recently used first
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Entry> dirty = new LinkedHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public CachingGameDAO(GameDAOInterface delegate, Settings settings) {
+        this.delegate = delegate;
+        this.settings = settings;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-cache-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = settings.flushDelay().toMillis();
+        flusher.scheduleWithFixedDelay(this::maintain, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public GameData createGame(String gameName) throws DataAccessException {
+        GameData game = delegate.createGame(gameName);
+        synchronized (this) {
+            cache(game);
+        }
+        return game;
+    }
+
+    /**
+     * Records the game's new state. Callers that go on changing the same
+     * {@link ChessGame} should do so under its lock, which is held here while
+     * the copy to be written is taken.
+     * <p>
+     * A record the cache handed out before the game's players changed keeps
+     * the players it had then, so passing it back after a move keeps the
+     * current players rather than undoing the join or leave.
+     */
+    public void updateGame(GameData game) throws DataAccessException {
+        ChessGame copy = null;
+        if (game.game() != null) {
+            synchronized (game.game()) {
+                copy = new ChessGame(game.game());
+            }
+        }
+
+        Entry entry;
+        GameData snapshot;
+        synchronized (this) {
+            entry = entries.get(game.gameID());
+            if (entry != null) {
+                if (entry.replaced.contains(game)) {
+                    game = game.game() == entry.data.game() ? entry.data : new GameData(game.gameID(),
+                            entry.data.whiteUsername(), entry.data.blackUsername(), entry.data.gameName(), game.game());
+                }
+                if (game != entry.data) {
+                    entry.replaced.add(entry.data);
+                    entry.data = game;
+                }
+            }
+            snapshot = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), copy);
+            if (entry != null) {
+                entry.pending = snapshot;
+                entry.version++;
+                entry.lastAccess = System.nanoTime();
+                dirty.put(entry.gameID, entry);
+            }
+        }
+
+        if (entry == null) {
+            // an unknown game is written at once, so a missing ID still fails here
+            delegate.updateGame(snapshot);
+            synchronized (this) {
+                cache(game);
+            }
+        } else if (copy != null && copy.isFinished()) {
+            writeSoon(entry);
+        }
+    }
+
+    public GameData findGame(int gameID) throws DataAccessException {
+        synchronized (this) {
+            Entry entry = entries.get(gameID);
+            if (entry != null) {
+                entry.lastAccess = System.nanoTime();
+                return entry.data;
+            }
+        }
+
+        GameData game = delegate.findGame(gameID);
+        if (game == null) {return null;}
+        synchronized (this) {
+            // another thread may have loaded it meanwhile, and that copy may have changed
+            Entry entry = entries.get(gameID);
+            return entry != null ? entry.data : cache(game).data;
+        }
+    }
+
+    /**
+     * Writes the pending changes first, so the list matches the cache, then
+     * uses the cached copy of every game that has one.
+     */
+    public List<GameData> getAllGames() throws DataAccessException {
+        flush();
+        List<GameData> games = new ArrayList<>(delegate.getAllGames());
+        synchronized (this) {
+            games.replaceAll(game -> {
+                Entry entry = entries.get(game.gameID());
+                return entry != null ? entry.data : game;
+            });
+        }
+        return games;
+    }
+
+    /**
+     * Lists from the wrapped DAO without waiting for pending writes: games
+     * with unwritten changes, such as a player joining or leaving, are taken
+     * from the cache instead. The wrapped DAO is asked for one extra game per
+     * changed game, since each may no longer pass the filters, and changed
+     * games past the last one it returned are left for a later page.
+     */
+    public List<GameSummary> listGames(GameQuery query) throws DataAccessException {
+        Map<Integer, GameSummary> changed = new HashMap<>();
+        synchronized (this) {
+            for (Entry entry : dirty.values()) {
+                GameData game = entry.data;
+                changed.put(game.gameID(), new GameSummary(game.gameID(), game.whiteUsername(),
+                        game.blackUsername(), game.gameName(), game.game() != null && game.game().isFinished()));
+            }
+        }
+        if (changed.isEmpty()) {
+            return delegate.listGames(query);
+        }
+
+        List<GameSummary> stored = delegate.listGames(query.withLimit(query.limit() + changed.size()));
+        boolean more = stored.size() == query.limit() + changed.size();
+        Comparator<Integer> order = query.newestFirst() ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        TreeMap<Integer, GameSummary> page = new TreeMap<>(order);
+        for (GameSummary game : stored) {
+            page.put(game.gameID(), changed.getOrDefault(game.gameID(), game));
+        }
+        for (GameSummary game : changed.values()) {
+            boolean afterCursor = query.after() == null || order.compare(game.gameID(), query.after()) > 0;
+            boolean beforeEnd = !more || order.compare(game.gameID(), stored.get(stored.size() - 1).gameID()) < 0;
+            if (afterCursor && beforeEnd) {
+                page.put(game.gameID(), game);
+            }
+        }
+
+        List<GameSummary> summaries = new ArrayList<>(query.limit());
+        for (GameSummary game : page.values()) {
+            if (query.matches(game)) {
+                summaries.add(game);
+                if (summaries.size() == query.limit()) {break;}
+            }
+        }
+        return summaries;
+    }
+
+    public void clear() throws DataAccessException {
+        synchronized (this) {
+            entries.clear();
+            dirty.clear();
+        }
+        delegate.clear();
+    }
+
+    /**
+     * Writes every game with unwritten changes.
+     *
+     * @throws DataAccessException the first failure; the games that failed stay pending
+     */
+    public void flush() throws DataAccessException {
+        List<Entry> toWrite;
+        synchronized (this) {
+            toWrite = new ArrayList<>(dirty.values());
+        }
+        DataAccessException failure = null;
+        for (Entry entry : toWrite) {
+            try {
+                write(entry);
+            } catch (DataAccessException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Has the background thread write the entry now, so the caller, which may
+     * hold the game's lock, does not wait on the database.
+     */
+    private void writeSoon(Entry entry) {
+        try {
+            flusher.execute(() -> {
+                try {
+                    write(entry);
+                } catch (DataAccessException e) {
+                    System.err.println("Failed to write finished game " + entry.gameID + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // closing, and close() writes what is still pending
+        }
+    }
+
+    /**
+     * Writes the entry's latest state. Writes of one game are serialized and
+     * each writes the newest copy, so the stored game never goes backwards.
+     */
+    private void write(Entry entry) throws DataAccessException {
+        synchronized (entry) {
+            GameData snapshot;
+            long version;
+            synchronized (this) {
+                snapshot = entry.pending;
+                version = entry.version;
+            }
+            if (snapshot == null) {return;}
+
+            delegate.updateGame(snapshot);
+            synchronized (this) {
+                if (entry.version == version) {
+                    entry.pending = null;
+                    dirty.remove(entry.gameID);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes pending changes and drops games idle past the idle timeout. Runs
+     * in the background; callable directly.
+     */
+    public void maintain() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            System.err.println("Failed to write cached games: " + e.getMessage());
+        }
+
+        long now = System.nanoTime();
+        synchronized (this) {
+            for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                if (entry.pending == null && now - entry.lastAccess >= settings.idleTimeout().toNanos()) {
+                    it.remove();
+                }
+            }
+            evictOverCapacity(null);
+        }
+    }
+
+    /**
+     * @return how many games are in memory
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return how many games have changes not yet written
+     */
+    public synchronized int pendingWrites() {
+        return dirty.size();
+    }
+
+    // callers hold the cache's lock
+    private Entry cache(GameData game) {
+        Entry entry = new Entry(game);
+        entry.lastAccess = System.nanoTime();
+        entries.put(entry.gameID, entry);
+        evictOverCapacity(entry);
+        return entry;
+    }
+
+    // games with unwritten changes stay until the flusher has written them
+    private void evictOverCapacity(Entry keep) {
+        for (Iterator<Entry> it = entries.values().iterator(); entries.size() > settings.capacity() && it.hasNext(); ) {
+            Entry entry = it.next();
+            if (entry != keep && entry.pending == null) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Stops the background writer and writes what is still pending.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,359 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of database connections, so a DAO call borrows an open
+ * connection instead of paying for a TCP and MySQL handshake.
+ * <p>
+ * Borrowed connections are proxies: closing one hands the physical connection
+ * back to the pool, which rolls back any open transaction first. A connection
+ * that sat idle for a while is checked with {@link Connection#isValid} before
+ * it is handed out, and one that failed with a connection error is thrown
+ * away rather than reused. A background thread closes connections left idle
+ * past {@link Settings#idleTimeout()} and, if a
+ * {@link Settings#leakThreshold()} is set, reports connections held longer than
+ * it, along with where they were borrowed.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    // connections used this recently are handed out without a validation round trip
+    private static final long VALIDATION_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Opens a new physical connection.
+     */
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * @param maxSize       most connections open at once, borrowed or idle
+     * @param borrowTimeout how long {@link #borrow()} waits for a free connection
+     * @param idleTimeout   how long an unused connection stays open
+     * @param leakThreshold how long a connection may be held before it is
+     *                      reported as a leak; zero turns leak detection off
+     */
+    public record Settings(int maxSize, Duration borrowTimeout, Duration idleTimeout, Duration leakThreshold) {
+        public Settings {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Pool size must be at least 1");
+            }
+            if (borrowTimeout.isNegative() || idleTimeout.isNegative() || idleTimeout.isZero()
+                    || leakThreshold.isNegative()) {
+                throw new IllegalArgumentException("Pool timeouts must be positive");
+            }
+        }
+
+        /**
+         * Leak detection is off by default, since it records a stack trace on
+         * every borrow; set db.pool.leakThresholdMillis in db.properties to
+         * turn it on.
+         */
+        public static Settings defaults() {
+            return new Settings(10, Duration.ofSeconds(5), Duration.ofMinutes(10), Duration.ZERO);
+        }
+    }
+
+    /**
+     * A snapshot of the pool's state and counters since it was created.
+     *
+     * @param waiting threads blocked in {@link #borrow()} right now
+     * @param created physical connections opened
+     * @param evicted connections closed for being idle, invalid or broken
+     */
+    public record Stats(int open, int idle, int borrowed, int waiting, long borrows, long timeouts, long created,
+                        long evicted, long leaks, Duration totalWait, Duration maxWait) {
+        public Duration averageWait() {
+            return borrows == 0 ? Duration.ZERO : totalWait.dividedBy(borrows);
+        }
+    }
+
+    private static final class Pooled {
+        final Connection physical;
+        long lastUsed;
+        long borrowedAt;
+        Throwable borrowedFrom;
+        boolean leakReported;
+        volatile boolean broken;
+
+        Pooled(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final Semaphore permits;
+    // most recently returned first, so busy periods reuse warm connections and the tail ages out
+    private final Deque<Pooled> idle = new ArrayDeque<>();
+    private final Set<Pooled> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = settings.idleTimeout().toMillis();
+        if (!settings.leakThreshold().isZero()) {
+            period = Math.min(period, settings.leakThreshold().toMillis());
+        }
+        period = Math.max(period / 2, 100);
+        housekeeper.scheduleWithFixedDelay(this::maintain, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to {@link Settings#borrowTimeout()} for
+     * one to be free. Close it to give it back.
+     *
+     * @throws SQLTransientConnectionException if none became free in time
+     * @throws SQLException                    if a new connection could not be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.borrowTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("No connection available within "
+                    + settings.borrowTimeout().toMillis() + " ms");
+        }
+
+        try {
+            Pooled pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new Pooled(factory.create());
+                created.increment();
+            }
+            pooled.borrowedAt = System.nanoTime();
+            pooled.leakReported = false;
+            pooled.borrowedFrom = settings.leakThreshold().isZero() ? null : new Throwable("Connection borrowed here");
+            borrowed.add(pooled);
+            borrows.increment();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(pooled));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // an idle connection that still works, or null if none is left
+    private Pooled takeIdle() {
+        while (true) {
+            Pooled pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            if (System.nanoTime() - pooled.lastUsed < VALIDATION_IDLE_NANOS || isValid(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+    }
+
+    private static boolean isValid(Pooled pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void giveBack(Pooled pooled) {
+        borrowed.remove(pooled);
+        pooled.borrowedFrom = null;
+        try {
+            if (!pooled.broken && !closed && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            pooled.broken = true;
+        }
+
+        if (pooled.broken || closed) {
+            discard(pooled);
+        } else {
+            pooled.lastUsed = System.nanoTime();
+            synchronized (idle) {
+                idle.addFirst(pooled);
+            }
+        }
+        permits.release();
+    }
+
+    private void discard(Pooled pooled) {
+        evicted.increment();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // the connection is being dropped anyway
+        }
+    }
+
+    /**
+     * Closes connections idle past the idle timeout and reports connections
+     * held past the leak threshold. Runs in the background; callable directly.
+     */
+    public void maintain() {
+        long now = System.nanoTime();
+        List<Pooled> expired = new ArrayList<>();
+        synchronized (idle) {
+            for (Iterator<Pooled> it = idle.descendingIterator(); it.hasNext(); ) {
+                Pooled pooled = it.next();
+                if (now - pooled.lastUsed < settings.idleTimeout().toNanos()) {
+                    break;
+                }
+                it.remove();
+                expired.add(pooled);
+            }
+        }
+        expired.forEach(this::discard);
+
+        if (settings.leakThreshold().isZero()) {return;}
+        for (Pooled pooled : borrowed) {
+            Throwable borrowedFrom = pooled.borrowedFrom;
+            long held = now - pooled.borrowedAt;
+            if (!pooled.leakReported && borrowedFrom != null && held >= settings.leakThreshold().toNanos()) {
+                pooled.leakReported = true;
+                leaks.increment();
+                System.err.println("Possible connection leak: held for " + TimeUnit.NANOSECONDS.toMillis(held) + " ms");
+                borrowedFrom.printStackTrace();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        int borrowedCount = borrowed.size();
+        return new Stats(idleCount + borrowedCount, idleCount, borrowedCount, permits.getQueueLength(),
+                borrows.sum(), timeouts.sum(), created.sum(), evicted.sum(), leaks.sum(),
+                Duration.ofNanos(totalWaitNanos.sum()), Duration.ofNanos(maxWaitNanos.get()));
+    }
+
+    /**
+     * Closes the idle connections and stops the housekeeping thread. Borrowed
+     * connections are closed as they are given back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        List<Pooled> remaining;
+        synchronized (idle) {
+            remaining = new ArrayList<>(idle);
+            idle.clear();
+        }
+        remaining.forEach(this::discard);
+    }
+
+    /**
+     * Behind each borrowed connection: passes calls through to the physical
+     * connection until close, which gives it back instead.
+     */
+    private final class Handle implements InvocationHandler {
+        private final Pooled pooled;
+        private boolean released;
+
+        Handle(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!released) {
+                        released = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + pooled.physical;
+                }
+                default -> { }
+            }
+            if (released) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                // SQLSTATE class 08 means the connection itself failed
+                if (cause instanceof SQLException sql && sql.getSQLState() != null
+                        && sql.getSQLState().startsWith("08")) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package dataaccess;
 
 import model.AuthData;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 import model.UserData;
 
 import java.util.List;
@@ -20,6 +22,7 @@ public interface DAOInterfaces {
         void updateGame(GameData game) throws DataAccessException;
         GameData findGame(int gameID) throws DataAccessException;
         List<GameData> getAllGames() throws DataAccessException;
+        List<GameSummary> listGames(GameQuery query) throws DataAccessException;
         void clear() throws DataAccessException;
     }
 
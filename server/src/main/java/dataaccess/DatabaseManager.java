@@ -1,6 +1,7 @@
 package dataaccess;
 
 import java.sql.*;
+import java.time.Duration;
 import java.util.Properties;
 
 public class DatabaseManager {
@@ -8,6 +9,9 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool.Settings poolSettings;
+    private static ConnectionPool pool;
+    private static int snapshotInterval;
 
     /*
      * Load the database information for the db.properties file.
@@ -30,9 +34,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrow a connection to the database from the connection pool, with the
+     * catalog set based upon the properties specified in db.properties.
+     * Connections to the database should be short-lived, and you must close the
+     * connection when you are done with it, which gives it back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -43,15 +48,50 @@ public class DatabaseManager {
      */
     public static Connection getConnection() throws DataAccessException {
         try {
-            //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool().borrow();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            pool = new ConnectionPool(DatabaseManager::openConnection, poolSettings);
+        }
+        return pool;
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
+    /**
+     * @return the connection pool's sizes, wait times and counters
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return pool().getStats();
+    }
+
+    /**
+     * Closes the pooled connections. A later {@link #getConnection()} starts a new pool.
+     */
+    public static synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /**
+     * @return how many moves a game's stored state may lag its move log before
+     * the state is written again, from db.game.snapshotInterval
+     */
+    public static int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -65,6 +105,13 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Reads the connection settings and the optional db.pool.size,
+     * db.pool.borrowTimeoutMillis, db.pool.idleTimeoutMillis and
+     * db.pool.leakThresholdMillis. Leak detection stays off unless
+     * db.pool.leakThresholdMillis is above zero. Connections already pooled
+     * were opened with the old settings, so the pool is closed.
+     */
     private static void loadProperties(Properties props) {
         databaseName = props.getProperty("db.name");
         dbUsername = props.getProperty("db.user");
@@ -73,5 +120,19 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+
+        var defaults = ConnectionPool.Settings.defaults();
+        poolSettings = new ConnectionPool.Settings(
+                Integer.parseInt(props.getProperty("db.pool.size", String.valueOf(defaults.maxSize()))),
+                durationProperty(props, "db.pool.borrowTimeoutMillis", defaults.borrowTimeout()),
+                durationProperty(props, "db.pool.idleTimeoutMillis", defaults.idleTimeout()),
+                durationProperty(props, "db.pool.leakThresholdMillis", defaults.leakThreshold()));
+        snapshotInterval = Integer.parseInt(props.getProperty("db.game.snapshotInterval", "20").trim());
+        closePool();
+    }
+
+    private static Duration durationProperty(Properties props, String name, Duration fallback) {
+        var value = props.getProperty(name);
+        return value == null ? fallback : Duration.ofMillis(Long.parseLong(value.trim()));
     }
 }
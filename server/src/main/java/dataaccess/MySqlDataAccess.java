@@ -1,6 +1,8 @@
 package dataaccess;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -41,16 +43,80 @@ public class MySqlDataAccess {
                         white_username VARCHAR(50),
                         black_username VARCHAR(50),
                         game_state JSON NOT NULL,
+                        finished BOOLEAN NOT NULL DEFAULT FALSE,
+                        ply_count INT NOT NULL DEFAULT 0,
+                        snapshot_ply INT NOT NULL DEFAULT 0,
+                        INDEX game_status (finished, game_id),
+                        INDEX game_name_prefix (game_name),
                         FOREIGN KEY (white_username) REFERENCES user(username)
                             ON DELETE SET NULL,
                         FOREIGN KEY (black_username) REFERENCES user(username)
                             ON DELETE SET NULL
                     )
                 """);
+                // games created before the move log and the lobby filters were added
+                addColumnIfMissing(conect, "game", "ply_count", "INT NOT NULL DEFAULT 0");
+                addColumnIfMissing(conect, "game", "snapshot_ply", "INT NOT NULL DEFAULT 0");
+                if (addColumnIfMissing(conect, "game", "finished", "BOOLEAN NOT NULL DEFAULT FALSE")) {
+                    stat.executeUpdate("""
+                        UPDATE game SET finished = TRUE
+                        WHERE JSON_UNQUOTE(JSON_EXTRACT(game_state, '$.finished')) = 'true'
+                    """);
+                }
+                addIndexIfMissing(conect, "game", "game_status", "(finished, game_id)");
+                addIndexIfMissing(conect, "game", "game_name_prefix", "(game_name)");
 
+                // GAME MOVE TABLE, the moves played since each game's stored state
+                stat.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS game_move (
+                        game_id INT NOT NULL,
+                        ply INT NOT NULL,
+                        move INT NOT NULL,
+                        played_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+                        PRIMARY KEY (game_id, ply),
+                        FOREIGN KEY (game_id) REFERENCES game(game_id)
+                            ON DELETE CASCADE
+                    )
+                """);
             }
         } catch (SQLException e) {
             throw new DataAccessException("Unable to initialize tables", e);
         }
     }
+
+    private static void addIndexIfMissing(Connection conect, String table, String index, String columns)
+            throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?";
+        try (PreparedStatement stat = conect.prepareStatement(sql)) {
+            stat.setString(1, table);
+            stat.setString(2, index);
+            try (ResultSet resSet = stat.executeQuery()) {
+                if (resSet.next() && resSet.getInt(1) > 0) {return;}
+            }
+        }
+        try (Statement stat = conect.createStatement()) {
+            stat.executeUpdate("CREATE INDEX " + index + " ON " + table + " " + columns);
+        }
+    }
+
+    /**
+     * @return whether the column was added, so existing rows may need filling in
+     */
+    private static boolean addColumnIfMissing(Connection conect, String table, String column, String definition)
+            throws SQLException {
+        String sql = "SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?";
+        try (PreparedStatement stat = conect.prepareStatement(sql)) {
+            stat.setString(1, table);
+            stat.setString(2, column);
+            try (ResultSet resSet = stat.executeQuery()) {
+                if (resSet.next() && resSet.getInt(1) > 0) {return false;}
+            }
+        }
+        try (Statement stat = conect.createStatement()) {
+            stat.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+        return true;
+    }
 }
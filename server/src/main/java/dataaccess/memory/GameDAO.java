@@ -3,14 +3,17 @@ package dataaccess.memory;
 import chess.ChessGame;
 import dataaccess.DAOInterfaces.GameDAOInterface;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 public class GameDAO implements GameDAOInterface {
-    private final Map<Integer, GameData> games = new HashMap<>();
+    // in ID order, so a page starts at its cursor instead of the first game
+    private final NavigableMap<Integer, GameData> games = new TreeMap<>();
 
     private int nextGameID = 1;
 
@@ -33,6 +36,23 @@ public class GameDAO implements GameDAOInterface {
         return new ArrayList<>(games.values());
     }
 
+    public List<GameSummary> listGames(GameQuery query) {
+        NavigableMap<Integer, GameData> ordered = query.newestFirst() ? games.descendingMap() : games;
+        if (query.after() != null) {
+            ordered = ordered.tailMap(query.after(), false);
+        }
+        List<GameSummary> summaries = new ArrayList<>(query.limit());
+        for (GameData game : ordered.values()) {
+            GameSummary summary = new GameSummary(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                    game.gameName(), game.game() != null && game.game().isFinished());
+            if (query.matches(summary)) {
+                summaries.add(summary);
+                if (summaries.size() == query.limit()) {break;}
+            }
+        }
+        return summaries;
+    }
+
     public void clear() {
         games.clear();
     }
@@ -2,17 +2,45 @@ package dataaccess.mysql;
 
 import chess.ChessGame;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import dataaccess.DataAccessException;
 import dataaccess.DatabaseManager;
 import dataaccess.DAOInterfaces.GameDAOInterface;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Stores each game as a snapshot of its full state plus a log of the moves
+ * played since, so a move writes a few bytes to game_move instead of the
+ * whole game_state. Loading a game plays the logged moves on the snapshot.
+ * The snapshot also keeps the game's repetition keys, which the game's own
+ * JSON leaves out, so a repetition still counts after the game is loaded.
+ */
 public class SqlGameDAO implements GameDAOInterface {
     private final Gson gson = new Gson();
+    private final int snapshotInterval;
+
+    public SqlGameDAO() {
+        this(DatabaseManager.getSnapshotInterval());
+    }
+
+    /**
+     * @param snapshotInterval most logged moves a game's stored state may lag behind
+     */
+    public SqlGameDAO(int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1");
+        }
+        this.snapshotInterval = snapshotInterval;
+    }
 
     public GameData createGame(String gameName) throws DataAccessException {
         String sql = "INSERT INTO game (game_name, game_state) VALUES (?, ?)";
@@ -20,7 +48,7 @@ public class SqlGameDAO implements GameDAOInterface {
              PreparedStatement stat = connect.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ChessGame newGameState = new ChessGame();
-            String gameStateJson = gson.toJson(newGameState);
+            String gameStateJson = writeState(newGameState);
 
             stat.setString(1, gameName);
             stat.setString(2, gameStateJson);
@@ -37,42 +65,125 @@ public class SqlGameDAO implements GameDAOInterface {
         }
     }
 
+    /**
+     * Appends the moves played since the last update to the move log, and
+     * writes the full game state only once it is {@code snapshotInterval}
+     * moves behind or the game is over. A game with fewer moves than stored,
+     * such as one that was reset, has its later moves deleted and its state
+     * written, as does one whose new moves were played before it was loaded
+     * and so cannot be logged.
+     */
     public void updateGame(GameData game) throws DataAccessException {
-        String sql = "UPDATE game SET white_username = ?, black_username = ?, game_state = ? WHERE game_id = ?";
-        try (Connection connect = DatabaseManager.getConnection();
-             PreparedStatement stat = connect.prepareStatement(sql)) {
-            stat.setString(1, game.whiteUsername());
-            stat.setString(2, game.blackUsername());
-            stat.setString(3, gson.toJson(game.game()));
-            stat.setInt(4, game.gameID());
-            int rows = stat.executeUpdate();
-            if (rows == 0) {
-                throw new DataAccessException("Game with ID " + game.gameID() + " does not exist.");
+        String select = "SELECT ply_count, snapshot_ply FROM game WHERE game_id = ? FOR UPDATE";
+        try (Connection connect = DatabaseManager.getConnection()) {
+            connect.setAutoCommit(false);
+            try {
+                int storedPly;
+                int snapshotPly;
+                try (PreparedStatement stat = connect.prepareStatement(select)) {
+                    stat.setInt(1, game.gameID());
+                    try (ResultSet resSet = stat.executeQuery()) {
+                        if (!resSet.next()) {
+                            throw new DataAccessException("Game with ID " + game.gameID() + " does not exist.");
+                        }
+                        storedPly = resSet.getInt("ply_count");
+                        snapshotPly = resSet.getInt("snapshot_ply");
+                    }
+                }
+
+                ChessGame state = game.game();
+                int ply = state.getPly();
+                boolean unlogged = ply > storedPly && storedPly < state.getFirstPlayedPly();
+                if (ply < storedPly) {
+                    deleteMovesAfter(connect, game.gameID(), ply);
+                } else if (ply > storedPly) {
+                    appendMoves(connect, game.gameID(), state, Math.max(storedPly, state.getFirstPlayedPly()));
+                }
+
+                boolean snapshot = ply < storedPly || unlogged || ply - snapshotPly >= snapshotInterval
+                        || state.isFinished();
+                String update = snapshot
+                        ? "UPDATE game SET white_username = ?, black_username = ?, finished = ?, ply_count = ?, "
+                                + "game_state = ?, snapshot_ply = ? WHERE game_id = ?"
+                        : "UPDATE game SET white_username = ?, black_username = ?, finished = ?, ply_count = ? "
+                                + "WHERE game_id = ?";
+                try (PreparedStatement stat = connect.prepareStatement(update)) {
+                    int index = 1;
+                    stat.setString(index++, game.whiteUsername());
+                    stat.setString(index++, game.blackUsername());
+                    stat.setBoolean(index++, state.isFinished());
+                    stat.setInt(index++, ply);
+                    if (snapshot) {
+                        stat.setString(index++, writeState(state));
+                        stat.setInt(index++, ply);
+                    }
+                    stat.setInt(index, game.gameID());
+                    stat.executeUpdate();
+                }
+                connect.commit();
+            } catch (SQLException | DataAccessException e) {
+                // the pool would roll back too, but only once the connection is returned
+                connect.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to update game", e);
         }
     }
 
+    private static void appendMoves(Connection connect, int gameID, ChessGame state, int fromPly)
+            throws SQLException {
+        String sql = "INSERT INTO game_move (game_id, ply, move) VALUES (?, ?, ?)";
+        try (PreparedStatement stat = connect.prepareStatement(sql)) {
+            for (int ply = fromPly; ply < state.getPly(); ply++) {
+                stat.setInt(1, gameID);
+                stat.setInt(2, ply + 1);
+                stat.setInt(3, state.getPlayedMove(ply));
+                stat.addBatch();
+            }
+            stat.executeBatch();
+        }
+    }
+
+    private static void deleteMovesAfter(Connection connect, int gameID, int ply) throws SQLException {
+        String sql = "DELETE FROM game_move WHERE game_id = ? AND ply > ?";
+        try (PreparedStatement stat = connect.prepareStatement(sql)) {
+            stat.setInt(1, gameID);
+            stat.setInt(2, ply);
+            stat.executeUpdate();
+        }
+    }
+
+    /**
+     * Loads the game's stored state and plays the logged moves made after it.
+     */
     public GameData findGame(int gameID) throws DataAccessException {
-        String sql = "SELECT game_id, game_name, white_username, black_username, game_state FROM game WHERE game_id = ?";
+        String sql = "SELECT game_id, game_name, white_username, black_username, game_state, snapshot_ply "
+                + "FROM game WHERE game_id = ?";
+        String moves = "SELECT move FROM game_move WHERE game_id = ? AND ply > ? ORDER BY ply";
         try (Connection connect = DatabaseManager.getConnection();
              PreparedStatement stat = connect.prepareStatement(sql)) {
             stat.setInt(1, gameID);
+            GameData game;
+            int snapshotPly;
             try (ResultSet resSet = stat.executeQuery()) {
-                if (resSet.next()) {
-                    ChessGame gameState = gson.fromJson(resSet.getString("game_state"), ChessGame.class);
-                    return new GameData(
-                            resSet.getInt("game_id"),
-                            resSet.getString("white_username"),
-                            resSet.getString("black_username"),
-                            resSet.getString("game_name"),
-                            gameState
-                    );
-                } else {
+                if (!resSet.next()) {
                     return null;
                 }
+                game = readGame(resSet);
+                snapshotPly = resSet.getInt("snapshot_ply");
             }
+
+            try (PreparedStatement moveStat = connect.prepareStatement(moves)) {
+                moveStat.setInt(1, gameID);
+                moveStat.setInt(2, snapshotPly);
+                try (ResultSet resSet = moveStat.executeQuery()) {
+                    while (resSet.next()) {
+                        game.game().makeMove(resSet.getInt("move"));
+                    }
+                }
+            }
+            return game;
         } catch (SQLException e) {
             throw new DataAccessException("Failed to find game", e);
         }
@@ -80,27 +191,111 @@ public class SqlGameDAO implements GameDAOInterface {
 
     public List<GameData> getAllGames() throws DataAccessException {
         String sql = "SELECT game_id, game_name, white_username, black_username, game_state FROM game";
-        List<GameData> games = new ArrayList<>();
+        String moves = "SELECT m.game_id, m.move FROM game_move m JOIN game g ON m.game_id = g.game_id "
+                + "WHERE m.ply > g.snapshot_ply ORDER BY m.game_id, m.ply";
+        Map<Integer, GameData> games = new LinkedHashMap<>();
 
-        try (Connection connect = DatabaseManager.getConnection();
-             PreparedStatement stat = connect.prepareStatement(sql);
-             ResultSet resSet = stat.executeQuery()) {
-
-            while (resSet.next()) {
-                ChessGame gameState = gson.fromJson(resSet.getString("game_state"), ChessGame.class);
-                games.add(new GameData(
-                        resSet.getInt("game_id"),
-                        resSet.getString("white_username"),
-                        resSet.getString("black_username"),
-                        resSet.getString("game_name"),
-                        gameState
-                ));
+        try (Connection connect = DatabaseManager.getConnection()) {
+            try (PreparedStatement stat = connect.prepareStatement(sql);
+                 ResultSet resSet = stat.executeQuery()) {
+                while (resSet.next()) {
+                    GameData game = readGame(resSet);
+                    games.put(game.gameID(), game);
+                }
             }
-            return games;
+            try (PreparedStatement stat = connect.prepareStatement(moves);
+                 ResultSet resSet = stat.executeQuery()) {
+                while (resSet.next()) {
+                    GameData game = games.get(resSet.getInt("game_id"));
+                    if (game != null) {
+                        game.game().makeMove(resSet.getInt("move"));
+                    }
+                }
+            }
+            return new ArrayList<>(games.values());
 
         } catch (SQLException e) {
             throw new DataAccessException("Failed to get all games", e);
-        }    }
+        }
+    }
+
+    /**
+     * Lists a page of games without their state, so none is parsed or
+     * replayed. The filters and cursor are all in the WHERE clause and the
+     * page is read in primary key order, so a page costs the same at any depth.
+     */
+    public List<GameSummary> listGames(GameQuery query) throws DataAccessException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT game_id, game_name, white_username, black_username, finished FROM game WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+        if (query.after() != null) {
+            sql.append(query.newestFirst() ? " AND game_id < ?" : " AND game_id > ?");
+            params.add(query.after());
+        }
+        if (query.status() != null) {
+            sql.append(switch (query.status()) {
+                case OPEN -> " AND NOT finished AND (white_username IS NULL OR black_username IS NULL)";
+                case IN_PROGRESS -> " AND NOT finished AND white_username IS NOT NULL AND black_username IS NOT NULL";
+                case FINISHED -> " AND finished";
+            });
+        }
+        if (query.player() != null) {
+            sql.append(" AND (white_username = ? OR black_username = ?)");
+            params.add(query.player());
+            params.add(query.player());
+        }
+        if (query.namePrefix() != null) {
+            sql.append(" AND game_name LIKE ?");
+            params.add(query.namePrefix().replaceAll("[\\\\%_]", "\\\\$0") + "%");
+        }
+        sql.append(query.newestFirst() ? " ORDER BY game_id DESC LIMIT ?" : " ORDER BY game_id LIMIT ?");
+        params.add(query.limit());
+
+        List<GameSummary> games = new ArrayList<>();
+        try (Connection connect = DatabaseManager.getConnection();
+             PreparedStatement stat = connect.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stat.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet resSet = stat.executeQuery()) {
+                while (resSet.next()) {
+                    games.add(new GameSummary(
+                            resSet.getInt("game_id"),
+                            resSet.getString("white_username"),
+                            resSet.getString("black_username"),
+                            resSet.getString("game_name"),
+                            resSet.getBoolean("finished")
+                    ));
+                }
+            }
+            return games;
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to list games", e);
+        }
+    }
+
+    // the game's JSON plus the repetition keys it leaves out
+    private String writeState(ChessGame state) {
+        JsonObject json = gson.toJsonTree(state).getAsJsonObject();
+        json.add("repetitionKeys", gson.toJsonTree(state.getRepetitionKeys()));
+        return json.toString();
+    }
+
+    private GameData readGame(ResultSet resSet) throws SQLException {
+        JsonObject json = JsonParser.parseString(resSet.getString("game_state")).getAsJsonObject();
+        ChessGame gameState = gson.fromJson(json, ChessGame.class);
+        // snapshots written before the keys were kept start without them
+        if (json.has("repetitionKeys")) {
+            gameState.restoreRepetitionKeys(gson.fromJson(json.get("repetitionKeys"), long[].class));
+        }
+        return new GameData(
+                resSet.getInt("game_id"),
+                resSet.getString("white_username"),
+                resSet.getString("black_username"),
+                resSet.getString("game_name"),
+                gameState
+        );
+    }
 
     public void clear() throws DataAccessException {
         String sql = "DELETE FROM game";
@@ -2,6 +2,7 @@ package server;
 
 import com.google.gson.Gson;
 import io.javalin.http.Context;
+import model.GameQuery;
 import service.creater.CreateRequest;
 import service.joinr.JoinRequest;
 import service.listr.ListRequest;
@@ -68,9 +69,12 @@ public class Handler {
     public void getGames(Context ctx) {
         try {
             String authToken = ctx.header("authorization");
-            ListRequest list = new ListRequest(authToken);
+            ListRequest list = new ListRequest(authToken, gameQuery(ctx));
             var result = service.getList(list);
             ctx.status(200).json(result);
+        } catch (IllegalArgumentException e) {
+            ctx.status(400).json(new ErrorMessage(e.getMessage()));
+
         } catch (IllegalStateException e) {
             ctx.status(401).json(new ErrorMessage(e.getMessage()));
 
@@ -79,6 +83,40 @@ public class Handler {
         }
     }
 
+    /**
+     * Reads GET /game's optional parameters: limit (page size, up to
+     * {@link GameQuery#MAX_LIMIT}), after (the nextCursor of the previous
+     * page), order (asc or desc by game ID), status (open, in_progress or
+     * finished), player and name (a prefix).
+     */
+    private static GameQuery gameQuery(Context ctx) {
+        try {
+            String limit = ctx.queryParam("limit");
+            String after = ctx.queryParam("after");
+            String order = ctx.queryParam("order");
+            String status = ctx.queryParam("status");
+
+            int pageSize = limit == null ? GameQuery.DEFAULT_LIMIT : Integer.parseInt(limit);
+            if (pageSize < 1 || pageSize > GameQuery.MAX_LIMIT
+                    || order != null && !order.equals("asc") && !order.equals("desc")) {
+                throw new IllegalArgumentException();
+            }
+            return new GameQuery(
+                    status == null ? null : GameQuery.Status.valueOf(status.toUpperCase()),
+                    emptyToNull(ctx.queryParam("player")),
+                    emptyToNull(ctx.queryParam("name")),
+                    after == null ? null : Integer.valueOf(after),
+                    "desc".equals(order),
+                    pageSize);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Error: bad request");
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
     public void makeGame(Context ctx) {
         try {
             CreateRequest create = gson.fromJson(ctx.body(), CreateRequest.class);
@@ -12,6 +12,7 @@ import service.Service;
 public class Server {
 
     private final Javalin javalin;
+    private final CachingGameDAO gameDAO;
 
     public Server() {
 
@@ -28,7 +29,7 @@ public class Server {
         });
 
         SqlAuthDAO authDAO = new SqlAuthDAO();
-        SqlGameDAO gameDAO = new SqlGameDAO();
+        gameDAO = new CachingGameDAO(new SqlGameDAO(), CachingGameDAO.Settings.defaults());
         SqlUserDAO userDAO = new SqlUserDAO();
         Service service = new Service(authDAO, gameDAO, userDAO);
         Handler handler = new Handler(service);
@@ -53,5 +54,11 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        try {
+            gameDAO.close();
+        } catch (DataAccessException e) {
+            System.err.println("Failed to write cached games: " + e.getMessage());
+        }
+        DatabaseManager.closePool();
     }
 }
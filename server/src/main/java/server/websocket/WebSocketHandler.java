@@ -75,7 +75,11 @@ public class WebSocketHandler {
             return;
         }
 
-        ctx.send(gson.toJson(new LoadGameMessage(game)));
+        String loadGame;
+        synchronized (game.game()) {
+            loadGame = gson.toJson(new LoadGameMessage(game));
+        }
+        ctx.send(loadGame);
 
         for (var otherCtx : connectionManager.getSessionsForGame(cmd.getGameID())) {
             if (!otherCtx.equals(ctx)) {
@@ -97,36 +101,53 @@ public class WebSocketHandler {
         GameData gameData = check.gameData();
         ChessGame game = gameData.game();
 
-        if (game.isFinished()) {
-            sendError(ctx, "game already over");
-            return;
-        }
+        // the game is shared through the cache, so it is only read or changed under its
+        // lock, and what the messages need is taken before the next move can come in
+        String loadGame;
+        ChessGame.TeamColor toMove;
+        ChessGame.GameStatus status;
+        ChessGame.DrawReason drawReason;
+        synchronized (game) {
+            if (game.isFinished()) {
+                sendError(ctx, "game already over");
+                return;
+            }
 
-        String playerColor;
-        if (username.equals(gameData.whiteUsername())) {
-            playerColor = "WHITE";
-        } else if (username.equals(gameData.blackUsername())) {
-            playerColor = "BLACK";
-        } else {
-            sendError(ctx, "observers cannot make moves");
-            return;
-        }
-        if (!playerColor.equalsIgnoreCase(game.getTeamTurn().name())) {
-            sendError(ctx, "not your turn");
-            return;
-        }
+            String playerColor;
+            if (username.equals(gameData.whiteUsername())) {
+                playerColor = "WHITE";
+            } else if (username.equals(gameData.blackUsername())) {
+                playerColor = "BLACK";
+            } else {
+                sendError(ctx, "observers cannot make moves");
+                return;
+            }
+            if (!playerColor.equalsIgnoreCase(game.getTeamTurn().name())) {
+                sendError(ctx, "not your turn");
+                return;
+            }
 
-        try {
-            game.makeMove(cmd.getMove());
-        } catch (InvalidMoveException e) {
-            sendError(ctx, "illegal move");
-            return;
-        }
+            try {
+                game.makeMove(cmd.getMove());
+            } catch (InvalidMoveException e) {
+                sendError(ctx, "illegal move");
+                return;
+            }
+            // the game only knows the winning color, as it does not know the players
+            if (game.getStatus() == ChessGame.GameStatus.CHECKMATE) {
+                game.setWinner(username);
+            }
 
-        service.updateGame(gameData);
+            service.updateGame(gameData);
+
+            loadGame = gson.toJson(new LoadGameMessage(gameData));
+            toMove = game.getTeamTurn();
+            status = game.getStatus();
+            drawReason = game.getDrawReason();
+        }
 
         for (WsContext otherCtx : connectionManager.getSessionsForGame(cmd.getGameID())) {
-            otherCtx.send(gson.toJson(new LoadGameMessage(gameData)));
+            otherCtx.send(loadGame);
         }
 
         String moveDescription = username + " made a move: " + cmd.getMove();
@@ -136,17 +157,13 @@ public class WebSocketHandler {
             }
         }
 
-        ChessGame.TeamColor toMove = game.getTeamTurn();
-
-        if (game.isInCheckmate(toMove)) {
-            String msg = gameData.getUsername(toMove) + " is in checkmate";
-            broadcast(cmd.getGameID(), msg);
-        } else if (game.isInStalemate(toMove)) {
-            String msg = "Game ended in stalemate";
-            broadcast(cmd.getGameID(), msg);
-        } else if (game.isInCheck(toMove)) {
-            String msg = gameData.getUsername(toMove) + " is in check";
-            broadcast(cmd.getGameID(), msg);
+        switch (status) {
+            case CHECKMATE -> broadcast(cmd.getGameID(), gameData.getUsername(toMove) + " is in checkmate");
+            case STALEMATE -> broadcast(cmd.getGameID(), "Game ended in stalemate");
+            case DRAW -> broadcast(cmd.getGameID(), drawReason == ChessGame.DrawReason.THREEFOLD_REPETITION
+                    ? "Game drawn by threefold repetition" : "Game drawn by the fifty-move rule");
+            case CHECK -> broadcast(cmd.getGameID(), gameData.getUsername(toMove) + " is in check");
+            default -> { }
         }
     }
 
@@ -187,29 +204,31 @@ public class WebSocketHandler {
         GameData gameData = check.gameData();
         ChessGame game = gameData.game();
 
-        if (game.isFinished()) {
-            sendError(ctx, "game already over");
-            return;
-        }
-
         String winner = username.equals(gameData.whiteUsername())
                 ? gameData.blackUsername()
                 : username.equals(gameData.blackUsername())
                 ? gameData.whiteUsername()
                 : null;
 
-        if (winner == null) {
-            sendError(ctx, "you are not part of this game");
-            return;
-        }
+        String notice;
+        synchronized (game) {
+            if (game.isFinished()) {
+                sendError(ctx, "game already over");
+                return;
+            }
+            if (winner == null) {
+                sendError(ctx, "you are not part of this game");
+                return;
+            }
 
-        gameData.game().setFinished(true);
-        gameData.game().setWinner(winner);
-        service.updateGame(gameData);
+            gameData.game().setFinished(true);
+            gameData.game().setWinner(winner);
+            service.updateGame(gameData);
+            notice = gson.toJson(new NotificationMessage(username + " has resigned. " + winner + " wins!"));
+        }
 
-        String message = username + " has resigned. " + winner + " wins!";
         for (WsContext otherCtx : connectionManager.getSessionsForGame(cmd.getGameID())) {
-            otherCtx.send(gson.toJson(new NotificationMessage(message)));
+            otherCtx.send(notice);
         }
     }
 
@@ -16,8 +16,11 @@ import dataaccess.DAOInterfaces.*;
 
 import model.AuthData;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 import model.UserData;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -96,8 +99,14 @@ public class Service {
             throw new IllegalStateException("Error: unauthorized");
         }
 
-        List<GameData> games = gameDAO.getAllGames();
-        return new ListResult(games);
+        // one game past the page tells whether there is another page
+        GameQuery query = list.query();
+        List<GameSummary> games = gameDAO.listGames(query.withLimit(query.limit() + 1));
+        if (games.size() <= query.limit()) {
+            return new ListResult(games, null);
+        }
+        games = new ArrayList<>(games.subList(0, query.limit()));
+        return new ListResult(games, games.get(games.size() - 1).gameID());
     }
 
     public CreateResult makeGame(CreateRequest create) throws DataAccessException {
@@ -1,3 +1,9 @@
 package service.listr;
 
-public record ListRequest(String authToken){}
+import model.GameQuery;
+
+public record ListRequest(String authToken, GameQuery query){
+    public ListRequest(String authToken) {
+        this(authToken, GameQuery.firstPage());
+    }
+}
@@ -1,6 +1,9 @@
 package service.listr;
 
-import model.GameData;
+import model.GameSummary;
 import java.util.Collection;
 
-public record ListResult(Collection<GameData> games){}
+/**
+ * @param nextCursor the game ID to list the next page after, or null on the last page
+ */
+public record ListResult(Collection<GameSummary> games, Integer nextCursor){}
@@ -0,0 +1,196 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.memory.GameDAO;
+import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingGameDAOTests {
+
+    /**
+     * The in-memory DAO, counting the calls that would go to the database.
+     */
+    private static final class CountingGameDAO extends GameDAO {
+        volatile int finds;
+        volatile int updates;
+
+        @Override
+        public GameData findGame(int gameID) {
+            finds++;
+            return super.findGame(gameID);
+        }
+
+        @Override
+        public void updateGame(GameData game) {
+            updates++;
+            super.updateGame(game);
+        }
+    }
+
+    private final CountingGameDAO stored = new CountingGameDAO();
+    private CachingGameDAO cache;
+
+    // the flush delay is long enough that only the test writes
+    private CachingGameDAO cache(int capacity) {
+        cache = new CachingGameDAO(stored, new CachingGameDAO.Settings(capacity, Duration.ofMinutes(1),
+                Duration.ofMinutes(1)));
+        return cache;
+    }
+
+    @AfterEach
+    void closeCache() throws DataAccessException {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private static void move(GameData game, String from, String to) throws InvalidMoveException {
+        game.game().makeMove(new ChessMove(position(from), position(to), null));
+    }
+
+    private static ChessPosition position(String square) {
+        return new ChessPosition(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    @Test
+    void coalescesMovesIntoOneWrite() throws Exception {
+        cache(10);
+        int id = stored.createGame("stored").gameID();
+
+        GameData game = cache.findGame(id);
+        move(game, "e2", "e4");
+        cache.updateGame(game);
+        move(cache.findGame(id), "e7", "e5");
+        cache.updateGame(game);
+
+        assertSame(game, cache.findGame(id));
+        assertEquals(1, stored.finds);
+        assertEquals(0, stored.updates);
+        assertEquals(1, cache.pendingWrites());
+
+        cache.flush();
+        assertEquals(1, stored.updates);
+        assertEquals(0, cache.pendingWrites());
+        assertEquals(game.game(), stored.findGame(id).game());
+        assertNotSame(game.game(), stored.findGame(id).game());
+    }
+
+    @Test
+    void writesFinishedGamesAtOnce() throws Exception {
+        cache(10);
+        GameData game = cache.createGame("resigned");
+        move(game, "d2", "d4");
+        cache.updateGame(game);
+        assertEquals(0, stored.updates);
+
+        game.game().setFinished(true);
+        game.game().setWinner("white");
+        cache.updateGame(game);
+        // long before the flush delay, but on the background thread
+        for (int i = 0; i < 100 && cache.pendingWrites() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, stored.updates);
+        assertEquals(0, cache.pendingWrites());
+        assertTrue(stored.findGame(game.gameID()).game().isFinished());
+    }
+
+    @Test
+    void movesOnARecordReadBeforeAJoinKeepTheJoin() throws Exception {
+        cache(10);
+        GameData read = cache.createGame("joined");
+        cache.updateGame(new GameData(read.gameID(), "white", null, read.gameName(), read.game()));
+
+        move(read, "e2", "e4");
+        cache.updateGame(read);
+        assertEquals("white", cache.findGame(read.gameID()).whiteUsername());
+        cache.flush();
+        assertEquals("white", stored.findGame(read.gameID()).whiteUsername());
+        assertEquals(ChessGame.TeamColor.BLACK, stored.findGame(read.gameID()).game().getTeamTurn());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOnceWritten() throws Exception {
+        cache(2);
+        GameData first = cache.createGame("first");
+        GameData second = cache.createGame("second");
+        move(first, "e2", "e4");
+        cache.updateGame(first);
+        cache.findGame(second.gameID());
+
+        // the first game has an unwritten move, so the second goes instead
+        cache.createGame("third");
+        assertEquals(2, cache.size());
+        assertSame(first, cache.findGame(first.gameID()));
+        assertEquals(0, stored.finds);
+
+        cache.maintain();
+        cache.findGame(second.gameID());
+        assertEquals(1, stored.finds);
+        assertEquals(2, cache.size());
+        assertEquals(ChessGame.TeamColor.BLACK, stored.findGame(first.gameID()).game().getTeamTurn());
+    }
+
+    @Test
+    void listsAndCloseWritePendingChanges() throws Exception {
+        cache(10);
+        GameData game = cache.createGame("listed");
+        GameData joined = new GameData(game.gameID(), "white", null, game.gameName(), game.game());
+        cache.updateGame(joined);
+
+        assertEquals("white", cache.listGames(GameQuery.firstPage()).get(0).whiteUsername());
+        assertEquals(1, cache.pendingWrites());
+        assertNull(stored.findGame(game.gameID()).whiteUsername());
+        assertEquals(1, cache.getAllGames().size());
+        assertSame(joined, cache.getAllGames().get(0));
+        assertEquals("white", stored.findGame(game.gameID()).whiteUsername());
+
+        move(joined, "g1", "f3");
+        cache.updateGame(joined);
+        cache.close();
+        assertEquals(ChessGame.TeamColor.BLACK, stored.findGame(game.gameID()).game().getTeamTurn());
+        cache = null;
+    }
+
+    @Test
+    void listsUnwrittenChangesAgainstTheFilters() throws Exception {
+        cache(10);
+        GameData first = cache.createGame("first");
+        GameData second = cache.createGame("second");
+        GameData third = cache.createGame("third");
+        cache.updateGame(new GameData(second.gameID(), "white", "black", second.gameName(), second.game()));
+
+        GameQuery open = new GameQuery(GameQuery.Status.OPEN, null, null, null, false, 1);
+        assertEquals(first.gameID(), cache.listGames(open).get(0).gameID());
+        List<GameSummary> next = cache.listGames(open.after(first.gameID()));
+        assertEquals(1, next.size());
+        assertEquals(third.gameID(), next.get(0).gameID());
+
+        GameQuery playing = new GameQuery(null, "black", null, null, true, 10);
+        assertEquals(List.of(new GameSummary(second.gameID(), "white", "black", "second", false)),
+                cache.listGames(playing));
+        assertEquals(0, stored.updates);
+        assertEquals(1, cache.pendingWrites());
+    }
+
+    @Test
+    void writesUnknownGamesThrough() throws DataAccessException {
+        cache(10);
+        GameData game = stored.createGame("elsewhere");
+        cache.updateGame(new GameData(game.gameID(), null, "black", game.gameName(), game.game()));
+        assertEquals(1, stored.updates);
+        assertEquals("black", cache.findGame(game.gameID()).blackUsername());
+        assertEquals(0, stored.finds);
+    }
+}
@@ -0,0 +1,161 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+
+    /**
+     * Stands in for a database connection, remembering what was done to it.
+     */
+    private static final class FakeConnection {
+        boolean closed;
+        boolean valid = true;
+        boolean autoCommit = true;
+        int rollbacks;
+        final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed = true;
+                        yield null;
+                    }
+                    case "isClosed" -> closed;
+                    case "isValid" -> valid && !closed;
+                    case "getAutoCommit" -> autoCommit;
+                    case "setAutoCommit" -> {
+                        autoCommit = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "rollback" -> {
+                        rollbacks++;
+                        yield null;
+                    }
+                    case "getCatalog" -> "chess";
+                    case "createStatement" -> throw new SQLException("link failure", "08S01");
+                    default -> null;
+                });
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    private ConnectionPool pool(ConnectionPool.Settings settings) {
+        pool = new ConnectionPool(() -> {
+            FakeConnection fake = new FakeConnection();
+            opened.add(fake);
+            return fake.connection;
+        }, settings);
+        return pool;
+    }
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void reusesConnectionsAfterClose() throws SQLException {
+        pool(ConnectionPool.Settings.defaults());
+        for (int i = 0; i < 5; i++) {
+            try (Connection conn = pool.borrow()) {
+                assertEquals("chess", conn.getCatalog());
+            }
+        }
+        assertEquals(1, opened.size());
+        assertFalse(opened.get(0).closed);
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(5, stats.borrows());
+        assertEquals(1, stats.created());
+        assertEquals(1, stats.idle());
+        assertEquals(0, stats.borrowed());
+    }
+
+    @Test
+    void closedHandleCannotBeUsed() throws SQLException {
+        pool(ConnectionPool.Settings.defaults());
+        Connection conn = pool.borrow();
+        conn.close();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::getCatalog);
+        assertEquals(1, pool.getStats().idle());
+    }
+
+    @Test
+    void waitsThenTimesOutWhenExhausted() throws SQLException {
+        pool(new ConnectionPool.Settings(2, Duration.ofMillis(50), Duration.ofMinutes(1), Duration.ZERO));
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        assertThrows(SQLTransientConnectionException.class, pool::borrow);
+
+        first.close();
+        pool.borrow().close();
+        second.close();
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.timeouts());
+        assertEquals(2, stats.open());
+        assertTrue(stats.maxWait().toMillis() >= 40, stats.toString());
+    }
+
+    @Test
+    void rollsBackOpenTransactionsAndDropsBrokenConnections() throws SQLException {
+        pool(ConnectionPool.Settings.defaults());
+        try (Connection conn = pool.borrow()) {
+            conn.setAutoCommit(false);
+        }
+        assertEquals(1, opened.get(0).rollbacks);
+        assertTrue(opened.get(0).autoCommit);
+
+        try (Connection conn = pool.borrow()) {
+            assertThrows(SQLException.class, conn::createStatement);
+        }
+        assertTrue(opened.get(0).closed);
+        assertEquals(0, pool.getStats().idle());
+    }
+
+    @Test
+    void replacesInvalidIdleConnections() throws Exception {
+        pool(ConnectionPool.Settings.defaults());
+        pool.borrow().close();
+        opened.get(0).valid = false;
+        // validation is skipped for connections given back moments ago
+        Thread.sleep(600);
+
+        pool.borrow().close();
+        assertEquals(2, opened.size());
+        assertTrue(opened.get(0).closed);
+        assertEquals(1, pool.getStats().evicted());
+    }
+
+    @Test
+    void evictsIdleAndReportsLeaks() throws Exception {
+        pool(new ConnectionPool.Settings(4, Duration.ofSeconds(1), Duration.ofMillis(20), Duration.ofMillis(20)));
+        pool.borrow().close();
+        Connection leaked = pool.borrow();
+        pool.borrow().close();
+        Thread.sleep(40);
+
+        pool.maintain();
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.leaks());
+        assertEquals(0, stats.idle());
+        assertEquals(1, stats.borrowed());
+
+        pool.maintain();
+        assertEquals(1, pool.getStats().leaks());
+        leaked.close();
+    }
+}
@@ -1,10 +1,14 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import dataaccess.mysql.*;
 import model.*;
 import org.junit.jupiter.api.*;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SqlDAOTests {
@@ -178,6 +182,49 @@ public class SqlDAOTests {
         });
     }
 
+    @Test
+    @DisplayName("Update Game - Replays Logged Moves")
+    void updateGameReplaysMoveLog() throws Exception {
+        SqlGameDAO snapshotEveryThree = new SqlGameDAO(3);
+        GameData game = snapshotEveryThree.createGame("Logged Game");
+        String[][] moves = {{"e2", "e4"}, {"e7", "e5"}, {"g1", "f3"}, {"b8", "c6"}, {"f1", "b5"}};
+        for (String[] move : moves) {
+            game.game().makeMove(new ChessMove(position(move[0]), position(move[1]), null));
+            snapshotEveryThree.updateGame(game);
+        }
+
+        GameData result = snapshotEveryThree.findGame(game.gameID());
+        assertEquals(5, result.game().getPly());
+        assertEquals(game.game().getZobristKey(), result.game().getZobristKey());
+        // the state was written after the third move, and the last two are replayed
+        assertEquals(3, result.game().getFirstPlayedPly());
+        assertEquals(2, result.game().getMoveHistory().size());
+        assertEquals(game.game(), gameDAO.getAllGames().get(0).game());
+    }
+
+    @Test
+    @DisplayName("Update Game - Repetitions Count Across A Reload")
+    void updateGameKeepsRepetitions() throws Exception {
+        SqlGameDAO snapshotEveryMove = new SqlGameDAO(1);
+        GameData game = snapshotEveryMove.createGame("Shuffled Game");
+        String[][] shuffle = {{"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"}};
+        for (String[] move : shuffle) {
+            game.game().makeMove(new ChessMove(position(move[0]), position(move[1]), null));
+            snapshotEveryMove.updateGame(game);
+        }
+
+        GameData loaded = snapshotEveryMove.findGame(game.gameID());
+        assertTrue(loaded.game().isRepetition());
+        for (String[] move : shuffle) {
+            loaded.game().makeMove(new ChessMove(position(move[0]), position(move[1]), null));
+        }
+        assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, loaded.game().getDrawReason());
+    }
+
+    private static ChessPosition position(String square) {
+        return new ChessPosition(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
     @Test
     @DisplayName("Find Game - Positive")
     void findGameSuccess() throws DataAccessException {
@@ -231,6 +278,95 @@ public class SqlDAOTests {
         assertTrue(allGames.isEmpty());
     }
 
+    @Test
+    @DisplayName("List Games - Positive")
+    void listGamesSuccess() throws DataAccessException {
+        GameData first = gameDAO.createGame("Game 1");
+        GameData second = gameDAO.createGame("Game 2");
+
+        assertEquals(List.of(new GameSummary(first.gameID(), null, null, "Game 1", false),
+                new GameSummary(second.gameID(), null, null, "Game 2", false)),
+                gameDAO.listGames(GameQuery.firstPage()));
+    }
+
+    @Test
+    @DisplayName("List Games - Pages Until The Last")
+    void listGamesPages() throws DataAccessException {
+        int first = gameDAO.createGame("Game 1").gameID();
+        int second = gameDAO.createGame("Game 2").gameID();
+        int third = gameDAO.createGame("Game 3").gameID();
+
+        GameQuery oldest = GameQuery.firstPage().withLimit(2);
+        assertEquals(List.of(first, second), ids(gameDAO.listGames(oldest)));
+        assertEquals(List.of(third), ids(gameDAO.listGames(oldest.after(second))));
+        assertTrue(gameDAO.listGames(oldest.after(third)).isEmpty());
+
+        GameQuery newest = new GameQuery(null, null, null, null, true, 2);
+        assertEquals(List.of(third, second), ids(gameDAO.listGames(newest)));
+        assertEquals(List.of(first), ids(gameDAO.listGames(newest.after(second))));
+        assertTrue(gameDAO.listGames(newest.after(first)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("List Games - Filters By Status And Player")
+    void listGamesFilters() throws DataAccessException {
+        userDAO.createUser(new UserData("white", "pass", "white@email.com"));
+        userDAO.createUser(new UserData("black", "pass", "black@email.com"));
+        GameData playing = gameDAO.createGame("Playing");
+        gameDAO.updateGame(new GameData(playing.gameID(), "white", "black", "Playing", playing.game()));
+        GameData open = gameDAO.createGame("Open");
+        gameDAO.updateGame(new GameData(open.gameID(), "white", null, "Open", open.game()));
+        GameData over = gameDAO.createGame("Over");
+        over.game().setFinished(true);
+        gameDAO.updateGame(over);
+
+        assertEquals(List.of(open.gameID()), ids(gameDAO.listGames(status(GameQuery.Status.OPEN))));
+        assertEquals(List.of(playing.gameID()), ids(gameDAO.listGames(status(GameQuery.Status.IN_PROGRESS))));
+        assertEquals(List.of(new GameSummary(over.gameID(), null, null, "Over", true)),
+                gameDAO.listGames(status(GameQuery.Status.FINISHED)));
+        assertEquals(List.of(playing.gameID(), open.gameID()),
+                ids(gameDAO.listGames(new GameQuery(null, "white", null, null, false, 10))));
+        assertEquals(List.of(playing.gameID()),
+                ids(gameDAO.listGames(new GameQuery(null, "black", null, null, false, 10))));
+    }
+
+    @Test
+    @DisplayName("List Games - Name Prefix Matches Wildcards Literally")
+    void listGamesNamePrefix() throws DataAccessException {
+        int percent = gameDAO.createGame("100% fun").gameID();
+        gameDAO.createGame("100x fun");
+        int underscore = gameDAO.createGame("a_b").gameID();
+        gameDAO.createGame("axb");
+        int backslash = gameDAO.createGame("c\\d").gameID();
+        gameDAO.createGame("cd");
+
+        assertEquals(List.of(percent), ids(gameDAO.listGames(prefix("100%"))));
+        assertEquals(List.of(underscore), ids(gameDAO.listGames(prefix("A_"))));
+        assertEquals(List.of(backslash), ids(gameDAO.listGames(prefix("c\\"))));
+        assertTrue(gameDAO.listGames(prefix("b")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("List Games - Fail (Empty Database, Unknown Player)")
+    void listGamesFail() throws DataAccessException {
+        assertTrue(gameDAO.listGames(GameQuery.firstPage()).isEmpty());
+
+        gameDAO.createGame("Game 1");
+        assertTrue(gameDAO.listGames(new GameQuery(null, "nobody", null, null, false, 10)).isEmpty());
+    }
+
+    private static GameQuery status(GameQuery.Status status) {
+        return new GameQuery(status, null, null, null, false, 10);
+    }
+
+    private static GameQuery prefix(String namePrefix) {
+        return new GameQuery(null, null, namePrefix, null, false, 10);
+    }
+
+    private static List<Integer> ids(List<GameSummary> games) {
+        return games.stream().map(GameSummary::gameID).toList();
+    }
+
     // User Tests
     @Test
     @DisplayName("Create User - Positive")
@@ -9,6 +9,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import dataaccess.memory.AuthDAO;
 import dataaccess.memory.GameDAO;
 import dataaccess.memory.UserDAO;
+import model.GameQuery;
+import model.GameSummary;
 import service.creater.CreateRequest;
 import service.joinr.JoinRequest;
 import service.listr.ListRequest;
@@ -16,6 +18,7 @@ import service.loginr.LoginRequest;
 import service.registerr.RegisterRequest;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class Tests {
 
@@ -96,6 +99,29 @@ public class Tests {
         assertEquals("Boring Game", gamesList.get(1).gameName());
     }
 
+    @Test
+    public void listPagesAndFilters() throws Exception {
+        var reg = service.register(new RegisterRequest("bill", "pass", "bill@email.com"));
+        for (int i = 1; i <= 5; i++) {
+            service.makeGame(new CreateRequest(reg.authToken(), (i % 2 == 0 ? "Blitz " : "Rapid ") + i));
+        }
+        service.joinGame(new JoinRequest(reg.authToken(), "WHITE", 2));
+
+        var first = service.getList(new ListRequest(reg.authToken(), GameQuery.firstPage().withLimit(2)));
+        assertEquals(List.of(1, 2), first.games().stream().map(GameSummary::gameID).toList());
+        assertEquals(2, first.nextCursor());
+        var last = service.getList(new ListRequest(reg.authToken(),
+                GameQuery.firstPage().withLimit(3).after(first.nextCursor())));
+        assertEquals(List.of(3, 4, 5), last.games().stream().map(GameSummary::gameID).toList());
+        assertNull(last.nextCursor());
+
+        var blitz = new GameQuery(null, null, "blitz", null, true, 10);
+        var blitzGames = service.getList(new ListRequest(reg.authToken(), blitz)).games();
+        assertEquals(List.of(4, 2), blitzGames.stream().map(GameSummary::gameID).toList());
+        var billsGames = new GameQuery(GameQuery.Status.OPEN, "bill", null, null, false, 10);
+        assertEquals(2, service.getList(new ListRequest(reg.authToken(), billsGames)).games().iterator().next().gameID());
+    }
+
     @Test
     public void listFail() {
         var listRequest = new ListRequest("badToken");
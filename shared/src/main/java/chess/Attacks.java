@@ -0,0 +1,194 @@
+package chess;
+
+/**
+ * Precomputed attack sets for every piece on every square.
+ * <p>
+ * Knights, kings and pawns use plain 64-entry tables. Rooks and bishops use
+ * one table per square indexed by the occupancy of the squares that can block
+ * them, packed down with {@link Long#compress} (the PEXT instruction on CPUs
+ * that have it), so a sliding lookup is a mask, a compress and a load.
+ */
+public final class Attacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1,0},{0,1},{-1,0},{0,-1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1,1},{1,-1},{-1,1},{-1,-1}};
+    private static final int[][] KING_STEPS = {{1,1},{1,-1},{-1,1},{-1,-1},{1,0},{0,1},{-1,0},{0,-1}};
+    private static final int[][] KNIGHT_STEPS = {{2,1},{2,-1},{-2,1},{-2,-1},{1,2},{-1,2},{1,-2},{-1,-2}};
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = stepAttacks(square, KNIGHT_STEPS);
+            KING[square] = stepAttacks(square, KING_STEPS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = stepAttacks(square, new int[][]{{1,1},{1,-1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = stepAttacks(square, new int[][]{{-1,1},{-1,-1}});
+            buildLines(square);
+        }
+        ROOK_TABLE = buildSlidingTable(ROOK_DIRECTIONS, ROOK_MASK, ROOK_OFFSET);
+        BISHOP_TABLE = buildSlidingTable(BISHOP_DIRECTIONS, BISHOP_MASK, BISHOP_OFFSET);
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return squares a pawn of the given color on square attacks diagonally
+     */
+    public static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    public static long rook(int square, long occupancy) {
+        return ROOK_TABLE[ROOK_OFFSET[square] + (int) Long.compress(occupancy, ROOK_MASK[square])];
+    }
+
+    public static long bishop(int square, long occupancy) {
+        return BISHOP_TABLE[BISHOP_OFFSET[square] + (int) Long.compress(occupancy, BISHOP_MASK[square])];
+    }
+
+    public static long queen(int square, long occupancy) {
+        return rook(square, occupancy) | bishop(square, occupancy);
+    }
+
+    /**
+     * @return squares strictly between two squares on a shared rank, file or
+     * diagonal, or an empty set if they do not share one
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal running through both squares,
+     * or an empty set if they do not share one
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * Squares attacked by a non-pawn piece standing on square, given the board occupancy
+     */
+    public static long piece(ChessPiece.PieceType type, int square, long occupancy) {
+        return switch (type) {
+            case KING -> KING[square];
+            case QUEEN -> queen(square, occupancy);
+            case BISHOP -> bishop(square, occupancy);
+            case KNIGHT -> KNIGHT[square];
+            case ROOK -> rook(square, occupancy);
+            case PAWN -> throw new IllegalArgumentException("pawn attacks depend on color");
+        };
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int row = Bitboards.row(square) + step[0];
+            int col = Bitboards.column(square) + step[1];
+            if (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                attacks |= Bitboards.bit(Bitboards.square(row, col));
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each direction until it leaves the board or hits a blocker, the
+     * blocker's square included.
+     */
+    private static long rayAttacks(int square, int[][] directions, long occupancy) {
+        long attacks = 0;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                int target = Bitboards.square(row, col);
+                attacks |= Bitboards.bit(target);
+                if (Bitboards.contains(occupancy, target)) {break;}
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static void buildLines(int square) {
+        for (int[] dir : KING_STEPS) {
+            long line = rayAttacks(square, new int[][]{dir}, 0)
+                    | rayAttacks(square, new int[][]{{-dir[0], -dir[1]}}, 0)
+                    | Bitboards.bit(square);
+            long path = 0;
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                int target = Bitboards.square(row, col);
+                BETWEEN[square][target] = path;
+                LINE[square][target] = line;
+                path |= Bitboards.bit(target);
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+    }
+
+    /**
+     * The squares whose occupancy can change a slider's attacks: every ray
+     * square except the last one before the edge.
+     */
+    private static long blockerMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (row + dir[0] >= 1 && row + dir[0] <= 8 && col + dir[1] >= 1 && col + dir[1] <= 8) {
+                mask |= Bitboards.bit(Bitboards.square(row, col));
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long[] buildSlidingTable(int[][] directions, long[] masks, int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = blockerMask(square, directions);
+            offsets[square] = size;
+            size += 1 << Long.bitCount(masks[square]);
+        }
+
+        long[] table = new long[size];
+        for (int square = 0; square < 64; square++) {
+            long mask = masks[square];
+            long subset = 0;
+            // enumerate every subset of the mask (carry-rippler)
+            do {
+                table[offsets[square] + (int) Long.compress(subset, mask)] = rayAttacks(square, directions, subset);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return table;
+    }
+}
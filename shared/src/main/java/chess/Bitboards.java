@@ -0,0 +1,59 @@
+package chess;
+
+/**
+ * Helpers for the 64-bit board sets used by {@link ChessBoard}.
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so a square
+ * index is {@code (row - 1) * 8 + (column - 1)} and bit {@code n} of a set
+ * is on when square {@code n} is in the set.
+ */
+public final class Bitboards {
+
+    public static final int SQUARES = 64;
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return square index for a 1-based row and column
+     */
+    public static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    /**
+     * @return square index of a position
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return 1-based row of a square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return 1-based column of a square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static boolean contains(long set, int square) {
+        return (set & (1L << square)) != 0;
+    }
+
+    /**
+     * @return the shared position for a square index
+     */
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(square);
+    }
+}
@@ -1,19 +1,60 @@
 package chess;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Besides the {@code squares} array, the board keeps a bitboard for each of the
+ * twelve kinds of piece plus one occupancy set per team. The array is what gets
+ * serialized; the bitboards are rebuilt from it whenever the array is replaced
+ * (for example after Gson fills in a board).
  */
 public class ChessBoard {
 
+    public static final int PIECE_KINDS = 12;
+    public static final int NO_SQUARE = -1;
+
+    /** Size of {@link #encode}'s output: four bits per square. */
+    public static final int ENCODED_BYTES = 32;
+
+    // FEN letter of each piece index
+    private static final String FEN_PIECES = "KQBNRPkqbnrp";
+
     ChessPiece[][] squares = new ChessPiece[8][8];
+
+    private transient long[] pieceSets = new long[PIECE_KINDS];
+    private transient long[] teamSets = new long[2];
+    private transient int[] kingSquares = {NO_SQUARE, NO_SQUARE};
+    private transient long zobristKey;
+    private transient int midgameScore;
+    private transient int endgameScore;
+    private transient int phase;
+    private transient ChessPiece[][] indexedSquares = squares;
+
     public ChessBoard() {
-        
+
+    }
+
+    /**
+     * Copies another board, bitboards included
+     */
+    public ChessBoard(ChessBoard other) {
+        other.sync();
+        for (int row = 0; row < 8; row++) {
+            squares[row] = other.squares[row].clone();
+        }
+        pieceSets = other.pieceSets.clone();
+        teamSets = other.teamSets.clone();
+        kingSquares = other.kingSquares.clone();
+        zobristKey = other.zobristKey;
+        midgameScore = other.midgameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
     }
 
     /**
@@ -23,7 +64,50 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        addPiece(Bitboards.square(position), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard, or clears the square when piece is null
+     *
+     * @param square square index, see {@link Bitboards}
+     * @param piece  the piece to add
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        sync();
+        ChessPiece old = squares[square >>> 3][square & 7];
+        long bit = 1L << square;
+        if (old != null) {
+            pieceSets[old.index()] &= ~bit;
+            teamSets[old.getTeamColor().ordinal()] &= ~bit;
+            zobristKey ^= Zobrist.piece(old.index(), square);
+            score(old.index(), square, -1);
+        }
+        if (piece != null) {
+            pieceSets[piece.index()] |= bit;
+            teamSets[piece.getTeamColor().ordinal()] |= bit;
+            zobristKey ^= Zobrist.piece(piece.index(), square);
+            score(piece.index(), square, 1);
+        }
+        squares[square >>> 3][square & 7] = piece;
+
+        if (old != null && old.getPieceType() == ChessPiece.PieceType.KING) {
+            updateKingSquare(old.getTeamColor().ordinal());
+        }
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
+            updateKingSquare(piece.getTeamColor().ordinal());
+        }
+    }
+
+    private void score(int pieceIndex, int square, int sign) {
+        midgameScore += sign * PieceSquareTables.midgame(pieceIndex, square);
+        endgameScore += sign * PieceSquareTables.endgame(pieceIndex, square);
+        phase += sign * PieceSquareTables.phase(pieceIndex);
+    }
+
+    private void updateKingSquare(int team) {
+        long kings = pieceSets[team * 6 + ChessPiece.PieceType.KING.ordinal()];
+        kingSquares[team] = kings == 0 ? NO_SQUARE : Long.numberOfTrailingZeros(kings);
     }
 
     /**
@@ -37,6 +121,240 @@ public class ChessBoard {
         return squares[position.getRow()-1][position.getColumn()-1];
     }
 
+    /**
+     * @param square square index, see {@link Bitboards}
+     * @return the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[square >>> 3][square & 7];
+    }
+
+    /**
+     * @return set of squares holding the given kind of piece
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return getPieces(pieceIndex(color, type));
+    }
+
+    /**
+     * @param pieceIndex index from {@link #pieceIndex}
+     * @return set of squares holding that kind of piece
+     */
+    public long getPieces(int pieceIndex) {
+        sync();
+        return pieceSets[pieceIndex];
+    }
+
+    /**
+     * @return set of squares holding pieces of the given team
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        sync();
+        return teamSets[color.ordinal()];
+    }
+
+    /**
+     * @return set of all occupied squares
+     */
+    public long getOccupancy() {
+        sync();
+        return teamSets[0] | teamSets[1];
+    }
+
+    /**
+     * @return square of the team's king, or {@link #NO_SQUARE} if it has none
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        sync();
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * @return Zobrist key of the pieces on the board, kept up to date as pieces
+     * are added and removed. {@link ChessGame#getZobristKey} adds the turn,
+     * castling and en passant state.
+     */
+    public long getZobristKey() {
+        sync();
+        return zobristKey;
+    }
+
+    /**
+     * @return material and piece-square score for the midgame, white minus black
+     */
+    int getMidgameScore() {
+        sync();
+        return midgameScore;
+    }
+
+    /**
+     * @return material and piece-square score for the endgame, white minus black
+     */
+    int getEndgameScore() {
+        sync();
+        return endgameScore;
+    }
+
+    /**
+     * @return how much non-pawn material is left, 0 up to (and with extra
+     * promoted pieces beyond) {@link PieceSquareTables#MAX_PHASE}
+     */
+    int getPhase() {
+        sync();
+        return phase;
+    }
+
+    /**
+     * Determines if any piece of a team attacks a square, by looking outward
+     * from the square along knight, pawn, king and sliding attack patterns.
+     *
+     * @param square square index, see {@link Bitboards}
+     * @param by     the attacking team
+     * @return True if the square is attacked
+     */
+    public boolean isAttacked(int square, ChessGame.TeamColor by) {
+        return isAttacked(square, by, getOccupancy(), 0);
+    }
+
+    /**
+     * Same as {@link #isAttacked(int, ChessGame.TeamColor)} for a hypothetical
+     * position: sliding attacks are traced through occupancy, and attackers
+     * standing on removed squares (captured pieces) are ignored.
+     */
+    boolean isAttacked(int square, ChessGame.TeamColor by, long occupancy, long removed) {
+        return (attackersTo(square, by, occupancy) & ~removed) != 0;
+    }
+
+    /**
+     * @param occupancy the occupancy to trace sliding attacks through
+     * @return set of squares holding pieces of team by that attack square
+     */
+    public long attackersTo(int square, ChessGame.TeamColor by, long occupancy) {
+        sync();
+        int base = pieceIndex(by, ChessPiece.PieceType.KING);
+        long queens = pieceSets[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        ChessGame.TeamColor defender = by == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+        return (Attacks.knight(square) & pieceSets[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Attacks.pawn(defender, square) & pieceSets[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Attacks.king(square) & pieceSets[base])
+                | (Attacks.bishop(square, occupancy) & (pieceSets[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Attacks.rook(square, occupancy) & (pieceSets[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    /**
+     * Index of a kind of piece in the bitboard table: white pieces take 0-5 and
+     * black pieces 6-11, each in {@link ChessPiece.PieceType} order.
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * Sets up a board from the piece placement field of a FEN string. The rest
+     * of the record may follow after a space and is ignored.
+     *
+     * @throws IllegalArgumentException if the placement does not describe eight full ranks
+     */
+    public static ChessBoard fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        int row = 7;
+        int col = 0;
+        for (int i = 0; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            int piece = FEN_PIECES.indexOf(c);
+            if (c == '/' && col == 8 && row > 0) {
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8' && col + (c - '0') <= 8) {
+                col += c - '0';
+            } else if (piece >= 0 && col < 8) {
+                board.addPiece(row * 8 + col++, ChessPiece.of(piece));
+            } else {
+                throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+        }
+        return board;
+    }
+
+    /**
+     * @return the piece placement field of the board's FEN, rank 8 first
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+        appendFen(fen);
+        return fen.toString();
+    }
+
+    void appendFen(StringBuilder fen) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = squares[row][col];
+                if (piece == null) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append((char) ('0' + empty));
+                        empty = 0;
+                    }
+                    fen.append(FEN_PIECES.charAt(piece.index()));
+                }
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+    }
+
+    /**
+     * Writes the board as {@link #ENCODED_BYTES} bytes, two squares per byte
+     * from a1 to h8, low nibble first. A nibble is 0 for an empty square and
+     * the piece's {@link #pieceIndex} + 1 otherwise.
+     */
+    public void encode(ByteBuffer out) {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col += 2) {
+                out.put((byte) (nibble(squares[row][col]) | nibble(squares[row][col + 1]) << 4));
+            }
+        }
+    }
+
+    private static int nibble(ChessPiece piece) {
+        return piece == null ? 0 : piece.index() + 1;
+    }
+
+    /**
+     * Reads a board written by {@link #encode}.
+     *
+     * @throws IllegalArgumentException if a square holds no valid piece code
+     */
+    public static ChessBoard decode(ByteBuffer in) {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < Bitboards.SQUARES; square += 2) {
+            int pair = in.get() & 0xFF;
+            board.decodeSquare(square, pair & 15);
+            board.decodeSquare(square + 1, pair >>> 4);
+        }
+        return board;
+    }
+
+    private void decodeSquare(int square, int code) {
+        if (code > PIECE_KINDS) {
+            throw new IllegalArgumentException("Bad piece code " + code + " on square " + square);
+        }
+        if (code != 0) {
+            addPiece(square, ChessPiece.of(code - 1));
+        }
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -67,10 +385,37 @@ public class ChessBoard {
             int row = (i == 0) ? 8 : 1;
             int prow = (i == 0) ? 7 : 2;
             for (int col = 1; col <= 8; col++){
-                addPiece(new ChessPosition(row, col), new ChessPiece(colors[i], backpiece[col - 1]));
-                addPiece(new ChessPosition(prow, col), new ChessPiece(colors[i], ChessPiece.PieceType.PAWN));
+                addPiece(ChessPosition.of(row, col), ChessPiece.of(colors[i], backpiece[col - 1]));
+                addPiece(ChessPosition.of(prow, col), ChessPiece.of(colors[i], ChessPiece.PieceType.PAWN));
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the bitboards if the squares array was swapped out underneath them.
+     */
+    private void sync() {
+        if (indexedSquares == squares) {return;}
+
+        pieceSets = new long[PIECE_KINDS];
+        teamSets = new long[2];
+        kingSquares = new int[2];
+        zobristKey = 0;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            ChessPiece piece = squares[square >>> 3][square & 7];
+            if (piece != null) {
+                pieceSets[piece.index()] |= 1L << square;
+                teamSets[piece.getTeamColor().ordinal()] |= 1L << square;
+                zobristKey ^= Zobrist.piece(piece.index(), square);
+                score(piece.index(), square, 1);
             }
         }
+        updateKingSquare(0);
+        updateKingSquare(1);
+        indexedSquares = squares;
     }
 
     @Override
@@ -79,11 +424,13 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        sync();
+        that.sync();
+        return Arrays.equals(pieceSets, that.pieceSets);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(getZobristKey());
     }
 }
@@ -1,7 +1,10 @@
 package chess;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -11,8 +14,21 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessGame {
+    /** Buffer size that fits the legal moves of any position. */
+    public static final int MAX_MOVES = MoveGenerator.MAX_MOVES;
+
+    /** Halfmoves without a capture or pawn move after which the game is drawn. */
+    public static final int FIFTY_MOVE_LIMIT = 100;
+
+    /** Size of {@link #encode}'s output. */
+    public static final int ENCODED_BYTES = ChessBoard.ENCODED_BYTES + 7;
+
+    // must cover FIFTY_MOVE_LIMIT plies and be a power of two
+    private static final int HISTORY_SIZE = 128;
+
     private String winner = null;
     private boolean finished = false;
+    private DrawReason drawReason = null;
 
     private ChessBoard board;
     private TeamColor currentTurn;
@@ -26,12 +42,249 @@ public class ChessGame {
 
     private ChessPosition enPassantTarget = null;
 
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    // moves played from the starting position, including any before the game was loaded
+    private int plyCount = 0;
+
+    // Zobrist keys of the positions reached on this object, as a ring buffer; only the
+    // last halfmoveClock + 1 entries can repeat, since captures and pawn moves are final.
+    // Like the played moves, they are left out of the JSON; a store that keeps
+    // getRepetitionKeys() beside it can restore the ones that still matter on load.
+    private final transient long[] positionHistory = new long[HISTORY_SIZE];
+    private transient int historyCount = 0;
+    // packed moves played on this object, the last playedCount of the plyCount moves
+    private transient int[] playedMoves;
+    private transient int playedCount;
+
+    private transient int[] moveBuffer;
+    private transient MoveGenerator generator;
+    private transient UndoStack undo;
+    // status of the position whose key is statusKey, or null if not worked out yet
+    private transient GameStatus status;
+    private transient long statusKey;
+
     public ChessGame() {
         this.board = new ChessBoard();
         this.board.resetBoard();
         this.currentTurn = TeamColor.WHITE;
     }
 
+    private ChessGame(ChessBoard board, TeamColor turn) {
+        this.board = board;
+        this.currentTurn = turn;
+    }
+
+    /**
+     * Copies another game's position, rule state and repetition history, so
+     * the copy can be searched or played on without touching the original.
+     * Moves made on the original cannot be taken back on the copy.
+     */
+    public ChessGame(ChessGame other) {
+        winner = other.winner;
+        finished = other.finished;
+        drawReason = other.drawReason;
+        board = new ChessBoard(other.board);
+        currentTurn = other.currentTurn;
+        whiteKingMoved = other.whiteKingMoved;
+        blackKingMoved = other.blackKingMoved;
+        whiteKingsideRookMoved = other.whiteKingsideRookMoved;
+        whiteQueensideRookMoved = other.whiteQueensideRookMoved;
+        blackKingsideRookMoved = other.blackKingsideRookMoved;
+        blackQueensideRookMoved = other.blackQueensideRookMoved;
+        enPassantTarget = other.enPassantTarget;
+        System.arraycopy(other.positionHistory, 0, positionHistory, 0, HISTORY_SIZE);
+        historyCount = other.historyCount;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        playedMoves = other.playedMoves == null ? null : other.playedMoves.clone();
+        playedCount = other.playedCount;
+        plyCount = other.plyCount;
+    }
+
+    /**
+     * Sets up a game from a FEN record: piece placement, side to move,
+     * castling rights, en passant target and, optionally, the halfmove clock
+     * and fullmove number. The game has no history before this position.
+     *
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        int start = fen.indexOf(' ') + 1;
+        if (start == 0 || start >= fen.length()) {
+            throw badFen(fen);
+        }
+
+        TeamColor turn = switch (fen.charAt(start)) {
+            case 'w' -> TeamColor.WHITE;
+            case 'b' -> TeamColor.BLACK;
+            default -> throw badFen(fen);
+        };
+        ChessGame game = new ChessGame(ChessBoard.fromFen(fen), turn);
+        start = nextField(fen, start, start + 1);
+
+        game.whiteKingsideRookMoved = true;
+        game.whiteQueensideRookMoved = true;
+        game.blackKingsideRookMoved = true;
+        game.blackQueensideRookMoved = true;
+        int end = fieldEnd(fen, start);
+        for (int i = start; i < end; i++) {
+            switch (fen.charAt(i)) {
+                case 'K' -> game.whiteKingsideRookMoved = false;
+                case 'Q' -> game.whiteQueensideRookMoved = false;
+                case 'k' -> game.blackKingsideRookMoved = false;
+                case 'q' -> game.blackQueensideRookMoved = false;
+                case '-' -> {
+                    if (end - start != 1) {throw badFen(fen);}
+                }
+                default -> throw badFen(fen);
+            }
+        }
+        start = nextField(fen, start, end);
+
+        end = fieldEnd(fen, start);
+        if (end - start == 2) {
+            int file = fen.charAt(start) - 'a';
+            int rank = fen.charAt(start + 1) - '1';
+            if (file < 0 || file > 7 || rank != (turn == TeamColor.WHITE ? 5 : 2)) {
+                throw badFen(fen);
+            }
+            game.enPassantTarget = ChessPosition.of(rank + 1, file + 1);
+        } else if (end - start != 1 || fen.charAt(start) != '-') {
+            throw badFen(fen);
+        }
+
+        // the move counters are often left off
+        if (end < fen.length()) {
+            start = end + 1;
+            end = fieldEnd(fen, start);
+            game.halfmoveClock = parseCounter(fen, start, end, 0);
+        }
+        if (end < fen.length()) {
+            start = end + 1;
+            end = fieldEnd(fen, start);
+            game.fullmoveNumber = parseCounter(fen, start, end, 1);
+        }
+        if (end != fen.length()) {
+            throw badFen(fen);
+        }
+        return game;
+    }
+
+    /**
+     * @return the position as a FEN record with all six fields
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        board.appendFen(fen);
+        fen.append(currentTurn == TeamColor.WHITE ? " w " : " b ");
+
+        int rights = castlingRights() & castlingPieces();
+        if (rights == 0) {
+            fen.append('-');
+        }
+        if ((rights & MoveGenerator.WHITE_KINGSIDE) != 0) {fen.append('K');}
+        if ((rights & MoveGenerator.WHITE_QUEENSIDE) != 0) {fen.append('Q');}
+        if ((rights & MoveGenerator.BLACK_KINGSIDE) != 0) {fen.append('k');}
+        if ((rights & MoveGenerator.BLACK_QUEENSIDE) != 0) {fen.append('q');}
+
+        fen.append(' ');
+        if (enPassantTarget == null) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + enPassantTarget.getColumn() - 1)).append(enPassantTarget.getRow());
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    /**
+     * Writes the game as exactly {@link #ENCODED_BYTES} bytes: the board as in
+     * {@link ChessBoard#encode}, then the castling flags, en passant square and
+     * halfmove clock as an int, the fullmove number as a short, and a byte with
+     * the side to move, whether the game is finished and why it was drawn.
+     * <p>
+     * Like FEN this leaves out the repetition history and takeback stack. It
+     * also leaves out the winner's name, which callers keep next to the players.
+     */
+    public void encode(ByteBuffer out) {
+        board.encode(out);
+        out.putInt(packState());
+        out.putShort((short) Math.min(fullmoveNumber, 0xFFFF));
+        out.put((byte) ((currentTurn == TeamColor.BLACK ? 1 : 0)
+                | (finished ? 2 : 0)
+                | (drawReason == null ? 0 : drawReason.ordinal() + 1) << 2));
+    }
+
+    /**
+     * Reads a game written by {@link #encode}, leaving the buffer just past it.
+     *
+     * @throws IllegalArgumentException if the bytes do not describe a game
+     */
+    public static ChessGame decode(ByteBuffer in) {
+        ChessBoard board = ChessBoard.decode(in);
+        int state = in.getInt();
+        int fullmove = in.getShort() & 0xFFFF;
+        int flags = in.get();
+
+        int epSquare = ((state >>> 6) & 127) - 1;
+        int reason = (flags >>> 2) & 3;
+        if (epSquare >= Bitboards.SQUARES || state < 0 || fullmove == 0
+                || reason > DrawReason.values().length || (flags & ~15) != 0) {
+            throw new IllegalArgumentException("Bad encoded game state");
+        }
+        ChessGame game = new ChessGame(board, (flags & 1) == 0 ? TeamColor.WHITE : TeamColor.BLACK);
+        game.unpackState(state);
+        game.fullmoveNumber = fullmove;
+        game.finished = (flags & 2) != 0;
+        game.drawReason = reason == 0 ? null : DrawReason.values()[reason - 1];
+        return game;
+    }
+
+    // castling rights whose king and rook still stand on their home squares
+    private int castlingPieces() {
+        int rights = 0;
+        long whiteRooks = board.getPieces(TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        long blackRooks = board.getPieces(TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        if (board.getKingSquare(TeamColor.WHITE) == 4) {
+            if (Bitboards.contains(whiteRooks, 7)) {rights |= MoveGenerator.WHITE_KINGSIDE;}
+            if (Bitboards.contains(whiteRooks, 0)) {rights |= MoveGenerator.WHITE_QUEENSIDE;}
+        }
+        if (board.getKingSquare(TeamColor.BLACK) == 60) {
+            if (Bitboards.contains(blackRooks, 63)) {rights |= MoveGenerator.BLACK_KINGSIDE;}
+            if (Bitboards.contains(blackRooks, 56)) {rights |= MoveGenerator.BLACK_QUEENSIDE;}
+        }
+        return rights;
+    }
+
+    private static int fieldEnd(String fen, int start) {
+        int end = fen.indexOf(' ', start);
+        return end < 0 ? fen.length() : end;
+    }
+
+    // start of the field after the one that ends at end, which must not be the last
+    private static int nextField(String fen, int start, int end) {
+        if (end == start || end >= fen.length() - 1 || fen.charAt(end) != ' ') {
+            throw badFen(fen);
+        }
+        return end + 1;
+    }
+
+    private static int parseCounter(String fen, int start, int end, int min) {
+        try {
+            int value = Integer.parseInt(fen, start, end, 10);
+            if (value >= min && value < 1 << 16) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below along with out-of-range values
+        }
+        throw badFen(fen);
+    }
+
+    private static IllegalArgumentException badFen(String fen) {
+        return new IllegalArgumentException("Bad FEN: " + fen);
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -60,273 +313,460 @@ public class ChessGame {
         BLACK
     }
 
-    private Boolean performMove(ChessMove move, boolean test){
-        ChessPosition start = move.getStartPosition();
-        ChessPosition end = move.getEndPosition();
-        ChessPiece piece = board.getPiece(start);
-        ChessPiece captured = board.getPiece(end);
-        ChessPiece.PieceType promo = move.getPromotionPiece();
+    /**
+     * How a game stands for the team whose turn it is
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        DRAW
+    }
 
-        boolean isEnPassant = false;
-        ChessPosition capturedPawnPos = null;
+    /**
+     * Why a game ended in a draw without a stalemate
+     */
+    public enum DrawReason {
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE
+    }
 
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN &&
-                end.equals(enPassantTarget) &&
-                Math.abs(end.getColumn() - start.getColumn()) == 1 &&
-                board.getPiece(end) == null) {
-            int direction = (piece.getTeamColor() == TeamColor.WHITE) ? -1 : 1;
-            capturedPawnPos = new ChessPosition(end.getRow() + direction, end.getColumn());
-            captured = board.getPiece(capturedPawnPos);
-            isEnPassant = true;
-            if (!test) {board.addPiece(capturedPawnPos, null);}
-        }
+    /**
+     * Gets a valid moves for a piece at the given location
+     *
+     * @param startPosition the piece to get valid moves for
+     * @return Set of valid moves for requested piece, or null if no piece at
+     * startPosition
+     */
+    public Collection<ChessMove> validMoves(ChessPosition startPosition) {
+        ChessPiece piece = board.getPiece(startPosition);
 
-        board.addPiece(start, null);
-        board.addPiece(end, promo == null ? piece : new ChessPiece(piece.getTeamColor(), promo));
+        if (piece == null) {return null;}
 
+        int[] moves = moveBuffer();
+        int count = generator().generateLegal(board, piece.getTeamColor(), castlingRights(), enPassantSquare(),
+                Bitboards.bit(Bitboards.square(startPosition)), moves);
 
-        boolean check = false;
-        if (test) {
-            check = isInCheck(piece.getTeamColor());
-            board.addPiece(start, piece);
-            board.addPiece(end, captured);
-            if (isEnPassant) {
-                board.addPiece(end, null); // En passant target square was empty
-                board.addPiece(capturedPawnPos, captured);
-            }
-        } else {
-            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-                if (piece.getTeamColor() == TeamColor.WHITE) {
-                    whiteKingMoved = true;
-                } else {
-                    blackKingMoved = true;
-                }
-            } else if (piece.getPieceType() == ChessPiece.PieceType.ROOK) {
-                if (piece.getTeamColor() == TeamColor.WHITE) {
-                    if (start.equals(new ChessPosition(1,1))) {whiteQueensideRookMoved = true;}
-                    if (start.equals(new ChessPosition(1,8))) {whiteKingsideRookMoved = true;}
-                } else {
-                    if (start.equals(new ChessPosition(8,1))) {blackQueensideRookMoved = true;}
-                    if (start.equals(new ChessPosition(8,8))) {blackKingsideRookMoved = true;}
-                }
-            }
+        Collection<ChessMove> legalMoves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            legalMoves.add(PackedMove.toChessMove(moves[i]));
+        }
+        return legalMoves;
+    }
 
-            if (piece.getPieceType() == ChessPiece.PieceType.PAWN &&
-                    Math.abs(end.getRow() - start.getRow()) == 2) {
-                int col = start.getColumn();
-                int midRow = (start.getRow() + end.getRow()) / 2;
-                enPassantTarget = new ChessPosition(midRow, col);
-            } else {
-                enPassantTarget = null;
-            }
+    /**
+     * Writes every legal move for the team whose turn it is into buffer, encoded
+     * as {@link PackedMove} ints. Nothing is allocated, so callers can reuse one
+     * buffer of {@link #MAX_MOVES} entries across calls.
+     *
+     * @param buffer where to write the moves
+     * @return how many moves were written
+     */
+    public int generateLegalMoves(int[] buffer) {
+        return generator().generateLegal(board, currentTurn, castlingRights(), enPassantSquare(), buffer);
+    }
 
-            if (captured != null && captured.getPieceType() == ChessPiece.PieceType.ROOK) {
-                if (captured.getTeamColor() == TeamColor.WHITE) {
-                    if (end.equals(new ChessPosition(1,1))) {whiteQueensideRookMoved = true;}
-                    if (end.equals(new ChessPosition(1,8))) {whiteKingsideRookMoved = true;}
-                } else {
-                    if (end.equals(new ChessPosition(8,1))) {blackQueensideRookMoved = true;}
-                    if (end.equals(new ChessPosition(8,8))) {blackKingsideRookMoved = true;}
-                }
+    /**
+     * Looks a move up among the legal moves of the team whose turn it is
+     *
+     * @param move the move to look for
+     * @return the flagged {@link PackedMove} matching it, or {@link PackedMove#NONE}
+     * if the move is not legal
+     */
+    public int findLegalMove(ChessMove move) {
+        int[] moves = moveBuffer();
+        int wanted = PackedMove.fromChessMove(move);
+        int count = generateLegalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.base(moves[i]) == wanted) {
+                return moves[i];
             }
         }
+        return PackedMove.NONE;
+    }
 
-        if (piece.getPieceType() == ChessPiece.PieceType.KING && !test) {
-            boolean white = piece.getTeamColor() == TeamColor.WHITE;
-            int row = white ? 1 : 8;
-            if (start.equals(new ChessPosition(row,5))) {
-                if (end.equals(new ChessPosition(row,7))) {
-                    ChessPiece rook = board.getPiece(new ChessPosition(row,8));
-                    board.addPiece(new ChessPosition(row,8), null);
-                    board.addPiece(new ChessPosition(row,6), rook);
-                } else if (end.equals(new ChessPosition(row,3))) {
-                    ChessPiece rook = board.getPiece(new ChessPosition(row,1));
-                    board.addPiece(new ChessPosition(row,1), null);
-                    board.addPiece(new ChessPosition(row,4), rook);
-                }
-            }
+    // transient scratch state is created lazily because Gson skips it when loading a game
+    private int[] moveBuffer() {
+        if (moveBuffer == null) {
+            moveBuffer = new int[MAX_MOVES];
         }
+        return moveBuffer;
+    }
 
-        return check;
+    private MoveGenerator generator() {
+        if (generator == null) {
+            generator = new MoveGenerator();
+        }
+        return generator;
     }
 
-    boolean wouldPassThroughCheck(ChessPosition from, ChessPosition to, TeamColor team) {
-        ChessPiece king = board.getPiece(from);
-        ChessPiece originalTarget = board.getPiece(to);
+    private UndoStack undo() {
+        if (undo == null) {
+            undo = new UndoStack();
+        }
+        return undo;
+    }
 
-        board.addPiece(from, null);
-        board.addPiece(to, king);
+    /**
+     * Gets the Zobrist key of the current position: the pieces, whose turn it is,
+     * the castling rights and the file of an en passant capture if one is
+     * actually available. The piece part is kept up to date by the board as
+     * moves change squares, so this is a handful of XORs.
+     *
+     * @return 64-bit position key
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ Zobrist.castling(castlingRights());
+        if (currentTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        int epSquare = enPassantSquare();
+        if (epSquare != ChessBoard.NO_SQUARE && (Attacks.pawn(MoveGenerator.opponent(currentTurn), epSquare)
+                & board.getPieces(currentTurn, ChessPiece.PieceType.PAWN)) != 0) {
+            key ^= Zobrist.enPassant(epSquare & 7);
+        }
+        return key;
+    }
 
-        boolean inCheck = isInCheck(team);
+    /**
+     * Scores the position in centipawns from the point of view of the side to
+     * move: material plus piece-square values, blended from midgame towards
+     * endgame weights as pieces come off. The board keeps both sums up to date
+     * as moves change squares, so this does no scanning.
+     */
+    public int evaluate() {
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (board.getMidgameScore() * phase
+                + board.getEndgameScore() * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return currentTurn == TeamColor.WHITE ? score : -score;
+    }
 
-        board.addPiece(to, originalTarget);
-        board.addPiece(from, king);
+    private int castlingRights() {
+        int rights = 0;
+        if (!whiteKingMoved && !whiteKingsideRookMoved) {rights |= MoveGenerator.WHITE_KINGSIDE;}
+        if (!whiteKingMoved && !whiteQueensideRookMoved) {rights |= MoveGenerator.WHITE_QUEENSIDE;}
+        if (!blackKingMoved && !blackKingsideRookMoved) {rights |= MoveGenerator.BLACK_KINGSIDE;}
+        if (!blackKingMoved && !blackQueensideRookMoved) {rights |= MoveGenerator.BLACK_QUEENSIDE;}
+        return rights;
+    }
 
-        return inCheck;
+    private int enPassantSquare() {
+        return enPassantTarget == null ? ChessBoard.NO_SQUARE : Bitboards.square(enPassantTarget);
     }
 
     /**
-     * Gets a valid moves for a piece at the given location
+     * Makes a move in a chess game, and ends the game if the move gives
+     * checkmate or stalemate or draws by the fifty-move rule or repetition
      *
-     * @param startPosition the piece to get valid moves for
-     * @return Set of valid moves for requested piece, or null if no piece at
-     * startPosition
+     * @param move chess move to perform
+     * @throws InvalidMoveException if move is invalid
      */
-    public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        ChessPiece piece = board.getPiece(startPosition);
-
-        if (piece == null) {return null;}
+    public void makeMove(ChessMove move) throws InvalidMoveException {
+        int packed = findLegalMove(move);
+        if (packed == PackedMove.NONE) {
+            throw new InvalidMoveException("Invalid move: " + move);
+        }
 
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> legalMoves = new ArrayList<>();
+        makeMove(packed);
+
+        GameStatus status = positionStatus();
+        if (status == GameStatus.CHECKMATE) {
+            endGame(currentTurn == TeamColor.WHITE ? "black" : "white", null);
+        } else if (status == GameStatus.STALEMATE) {
+            endGame(null, null);
+        } else if (halfmoveClock >= FIFTY_MOVE_LIMIT) {
+            endGame(null, DrawReason.FIFTY_MOVE_RULE);
+        } else if (countRepetitions() >= 3) {
+            endGame(null, DrawReason.THREEFOLD_REPETITION);
+        }
+    }
 
-        for (ChessMove move : possibleMoves) {
-            if (!performMove(move, true)) {
-                legalMoves.add(move);
-            }
+    /**
+     * Plays a move without validating it or deciding whether the game is over.
+     * Every move made this way, including those made through
+     * {@link #makeMove(ChessMove)}, can be taken back with {@link #unmakeMove()},
+     * so search and perft can walk a tree of moves on one game object.
+     *
+     * @param move a {@link PackedMove} from {@link #generateLegalMoves} or
+     *             {@link #findLegalMove} for the current position
+     */
+    public void makeMove(int move) {
+        if (historyCount == 0) {
+            recordPosition();
+        }
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int captureSquare = PackedMove.isEnPassant(move) ? enPassantVictim(to) : to;
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece captured = board.getPiece(captureSquare);
+        undo().push(move, captured, packState(), positionHistory[historyCount & (HISTORY_SIZE - 1)]);
+
+        ChessPiece.PieceType promo = PackedMove.promotion(move);
+        if (captureSquare != to) {
+            board.addPiece(captureSquare, null);
+        }
+        board.addPiece(from, null);
+        board.addPiece(to, promo == null ? piece : ChessPiece.of(piece.getTeamColor(), promo));
+        if (PackedMove.isCastle(move)) {
+            moveCastlingRook(from, to, false);
         }
 
         if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-
-            if (piece.getTeamColor() == TeamColor.WHITE &&
-                    startPosition.equals(new ChessPosition(1, 5)) &&
-                    !whiteKingMoved && !isInCheck(TeamColor.WHITE)
-            ) {
-                if (!whiteKingsideRookMoved &&
-                        board.getPiece(new ChessPosition(1,6)) == null &&
-                        board.getPiece(new ChessPosition(1,7)) == null &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(1,6), TeamColor.WHITE) &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(1,7), TeamColor.WHITE)
-                ) {
-                    legalMoves.add(new ChessMove(startPosition, new ChessPosition(1,7), null));
-                }
-                if (!whiteQueensideRookMoved &&
-                        board.getPiece(new ChessPosition(1,2)) == null &&
-                        board.getPiece(new ChessPosition(1,3)) == null &&
-                        board.getPiece(new ChessPosition(1,4)) == null &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(1,4), TeamColor.WHITE) &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(1,3), TeamColor.WHITE) &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(1,2), TeamColor.WHITE)) {
-                    legalMoves.add(new ChessMove(startPosition, new ChessPosition(1,3), null));
-                }
-            } else if (piece.getTeamColor() == TeamColor.BLACK &&
-                    startPosition.equals(new ChessPosition(8, 5)) &&
-                    !blackKingMoved &&
-                    !isInCheck(TeamColor.BLACK)
-            ) {
-                if (!blackKingsideRookMoved &&
-                        board.getPiece(new ChessPosition(8,6)) == null &&
-                        board.getPiece(new ChessPosition(8,7)) == null &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(8,6), TeamColor.BLACK) &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(8,7), TeamColor.BLACK)) {
-                    legalMoves.add(new ChessMove(startPosition, new ChessPosition(8,7), null));
-                }
-                if (!blackQueensideRookMoved &&
-                        board.getPiece(new ChessPosition(8,2)) == null &&
-                        board.getPiece(new ChessPosition(8,3)) == null &&
-                        board.getPiece(new ChessPosition(8,4)) == null &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(8,4), TeamColor.BLACK) &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(8,3), TeamColor.BLACK) &&
-                        !wouldPassThroughCheck(startPosition, new ChessPosition(8,2), TeamColor.BLACK)) {
-                    legalMoves.add(new ChessMove(startPosition, new ChessPosition(8,3), null));
-                }
+            if (piece.getTeamColor() == TeamColor.WHITE) {
+                whiteKingMoved = true;
+            } else {
+                blackKingMoved = true;
             }
         }
+        // a rook loses its castling right when it leaves its corner or is captured there
+        markRookMoved(from);
+        markRookMoved(to);
+
+        enPassantTarget = PackedMove.isDoublePush(move) ? Bitboards.position((from + to) >>> 1) : null;
+        boolean irreversible = captured != null || piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        currentTurn = MoveGenerator.opponent(currentTurn);
+        recordPosition();
 
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && enPassantTarget != null) {
-            int row = startPosition.getRow();
-            int col = startPosition.getColumn();
-
-            int dir = (piece.getTeamColor() == TeamColor.WHITE) ? 1 : -1;
-            int expectedRow = (piece.getTeamColor() == TeamColor.WHITE) ? 5 : 4;
+        if (playedMoves == null || playedCount == playedMoves.length) {
+            playedMoves = Arrays.copyOf(playedMoves == null ? new int[0] : playedMoves, Math.max(16, playedCount * 2));
+        }
+        playedMoves[playedCount++] = move;
+        plyCount++;
+    }
 
-            if (row == expectedRow) {
-                int enPassantCol = enPassantTarget.getColumn();
+    /**
+     * Takes back the last move made on this game object, restoring the board,
+     * turn, castling rights, en passant square, halfmove clock and repetition
+     * history. A finished game is not reopened.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if (undo == null || undo.size() == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        int move = undo.move();
+        ChessPiece captured = undo.captured();
+        int state = undo.state();
+        historyCount--;
+        positionHistory[historyCount & (HISTORY_SIZE - 1)] = undo.displacedKey();
+        undo.pop();
+
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(to);
+        if (PackedMove.promotion(move) != null) {
+            piece = ChessPiece.of(piece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        if (PackedMove.isCastle(move)) {
+            moveCastlingRook(from, to, true);
+        }
+        board.addPiece(to, null);
+        board.addPiece(from, piece);
+        if (captured != null) {
+            board.addPiece(PackedMove.isEnPassant(move) ? enPassantVictim(to) : to, captured);
+        }
 
-                if (Math.abs(col - enPassantCol) == 1 && enPassantTarget.getRow() == row + dir) {
-                    ChessMove enPassantMove = new ChessMove(startPosition, enPassantTarget, null);
-                    if (!performMove(enPassantMove, true)) {
-                        legalMoves.add(enPassantMove);
-                    }
-                }
-            }
+        unpackState(state);
+        currentTurn = MoveGenerator.opponent(currentTurn);
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
         }
+        plyCount--;
+        playedCount--;
+    }
 
-        return legalMoves;
+    /**
+     * @return how many moves {@link #unmakeMove()} can take back
+     */
+    public int getUndoDepth() {
+        return undo == null ? 0 : undo.size();
     }
 
     /**
-     * Makes a move in a chess game
-     *
-     * @param move chess move to perform
-     * @throws InvalidMoveException if move is invalid
+     * @return how many moves have been played from the starting position, which
+     * is the standard one, the FEN record or the board last set, counting those
+     * played before the game was saved and loaded
      */
-    public void makeMove(ChessMove move) throws InvalidMoveException {
-        ChessPosition start = move.getStartPosition();
-        Collection<ChessMove> legalMoves = validMoves(start);
+    public int getPly() {
+        return plyCount;
+    }
 
-        ChessPiece piece = board.getPiece(start);
+    /**
+     * @return the ply of the first move {@link #getPlayedMove} knows: 0, or the
+     * ply the game was at when it was loaded
+     */
+    public int getFirstPlayedPly() {
+        return plyCount - playedCount;
+    }
 
-        if (legalMoves == null || !legalMoves.contains(move) || piece.getTeamColor() != currentTurn) {
-            throw new InvalidMoveException("Invalid move: " + move);
+    /**
+     * @param ply 0 for the first move played from the starting position
+     * @return the move as a {@link PackedMove}
+     * @throws IndexOutOfBoundsException if the move was not played on this object,
+     *                                   or not played yet
+     */
+    public int getPlayedMove(int ply) {
+        Objects.checkIndex(ply, plyCount);
+        int first = getFirstPlayedPly();
+        if (ply < first) {
+            throw new IndexOutOfBoundsException("Move " + ply + " was played before the game was loaded");
         }
+        return playedMoves[ply - first];
+    }
 
-        performMove(move, false);
-
-        currentTurn = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-
-        if (isInCheckmate(getTeamTurn())) {
-            System.out.println("Checkmate! " + currentTurn + " loses.");
+    /**
+     * @return the moves from {@link #getFirstPlayedPly()} on, in order
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> moves = new ArrayList<>(playedCount);
+        for (int i = 0; i < playedCount; i++) {
+            moves.add(PackedMove.toChessMove(playedMoves[i]));
         }
-        if (isInStalemate(getTeamTurn())) {
-            System.out.println("Stalemate! It's a Draw!");
+        return moves;
+    }
+
+    /**
+     * @return the Zobrist keys of the positions since the last capture or pawn
+     * move that this game has seen, oldest first and ending with the current
+     * one: what a stored copy needs so repetitions still count once it is loaded
+     */
+    public long[] getRepetitionKeys() {
+        int count = Math.min(historyCount, halfmoveClock + 1);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = positionHistory[(historyCount - count + i) & (HISTORY_SIZE - 1)];
         }
+        return keys;
     }
 
     /**
-     * Determines if the given team is in check
+     * Gives a loaded game back the keys {@link #getRepetitionKeys()} returned
+     * for it before it was stored.
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @throws IllegalStateException    if a move was already played on this object
+     * @throws IllegalArgumentException if the last key is not the current position's
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = null;
+    public void restoreRepetitionKeys(long[] keys) {
+        if (historyCount > 0) {
+            throw new IllegalStateException("Repetition history already started");
+        }
+        if (keys.length == 0) {return;}
+        if (keys[keys.length - 1] != getZobristKey()) {
+            throw new IllegalArgumentException("Repetition keys do not end at the current position");
+        }
+        int count = Math.min(keys.length, HISTORY_SIZE);
+        System.arraycopy(keys, keys.length - count, positionHistory, 0, count);
+        historyCount = count;
+    }
 
-        for (int row = 1; row <= 8; row++){
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
+    private static int enPassantVictim(int target) {
+        // the captured pawn sits behind the target square, on the capturer's rank
+        return target < 32 ? target + 8 : target - 8;
+    }
 
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    kingPosition = position;
-                    break;
-                }
-            }
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean back) {
+        int rookFrom = kingTo > kingFrom ? kingFrom + 3 : kingFrom - 4;
+        int rookTo = kingTo > kingFrom ? kingFrom + 1 : kingFrom - 1;
+        if (back) {
+            int swap = rookFrom;
+            rookFrom = rookTo;
+            rookTo = swap;
         }
+        ChessPiece rook = board.getPiece(rookFrom);
+        board.addPiece(rookFrom, null);
+        board.addPiece(rookTo, rook);
+    }
 
-        if (kingPosition == null) {
-            throw new IllegalStateException("King not found on board for team " + teamColor);
+    private void markRookMoved(int corner) {
+        switch (corner) {
+            case 0 -> whiteQueensideRookMoved = true;
+            case 7 -> whiteKingsideRookMoved = true;
+            case 56 -> blackQueensideRookMoved = true;
+            case 63 -> blackKingsideRookMoved = true;
+            default -> { }
         }
+    }
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
+    // castling flags in bits 0-5, en passant square + 1 in bits 6-12, halfmove clock above
+    private int packState() {
+        int state = (whiteKingMoved ? 1 : 0)
+                | (blackKingMoved ? 2 : 0)
+                | (whiteKingsideRookMoved ? 4 : 0)
+                | (whiteQueensideRookMoved ? 8 : 0)
+                | (blackKingsideRookMoved ? 16 : 0)
+                | (blackQueensideRookMoved ? 32 : 0);
+        return state | ((enPassantSquare() + 1) << 6) | (halfmoveClock << 13);
+    }
 
-                if (piece == null) {continue;}
+    private void unpackState(int state) {
+        whiteKingMoved = (state & 1) != 0;
+        blackKingMoved = (state & 2) != 0;
+        whiteKingsideRookMoved = (state & 4) != 0;
+        whiteQueensideRookMoved = (state & 8) != 0;
+        blackKingsideRookMoved = (state & 16) != 0;
+        blackQueensideRookMoved = (state & 32) != 0;
+        int epSquare = ((state >>> 6) & 127) - 1;
+        enPassantTarget = epSquare == ChessBoard.NO_SQUARE ? null : Bitboards.position(epSquare);
+        halfmoveClock = state >>> 13;
+    }
 
-                if (piece.getTeamColor() == teamColor) {continue;}
+    private void recordPosition() {
+        positionHistory[historyCount & (HISTORY_SIZE - 1)] = getZobristKey();
+        historyCount++;
+    }
 
-                Collection<ChessMove> moves = piece.pieceMoves(board, position);
-                for (ChessMove move : moves) {
-                    if (move.getEndPosition().equals(kingPosition)) {
-                        return true;
-                    }
-                }
+    /**
+     * @return how many times the current position has occurred, counting itself
+     */
+    private int countRepetitions() {
+        int latest = historyCount - 1;
+        long key = positionHistory[latest & (HISTORY_SIZE - 1)];
+        int reach = Math.min(halfmoveClock, latest);
+        int count = 1;
+        // only positions with the same side to move can match
+        for (int back = 2; back <= reach; back += 2) {
+            if (positionHistory[(latest - back) & (HISTORY_SIZE - 1)] == key) {
+                count++;
             }
         }
+        return count;
+    }
 
-        return false;
+    /**
+     * @return true if the current position already occurred since the last
+     * capture or pawn move. A search can score it as a draw, since whoever
+     * steered back into it could do so again.
+     */
+    public boolean isRepetition() {
+        return historyCount > 0 && countRepetitions() >= 2;
+    }
+
+    private void endGame(String winner, DrawReason reason) {
+        this.winner = winner;
+        drawReason = reason;
+        finished = true;
+    }
+
+    /**
+     * Determines if the given team is in check
+     *
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+        int kingSquare = board.getKingSquare(teamColor);
+
+        if (kingSquare == ChessBoard.NO_SQUARE) {
+            throw new IllegalStateException("King not found on board for team " + teamColor);
+        }
+
+        return board.isAttacked(kingSquare, MoveGenerator.opponent(teamColor));
     }
 
     /**
@@ -336,23 +776,13 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     boolean isMate (TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(position);
-                    if (moves != null && !moves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return generator().generateLegal(board, teamColor, castlingRights(), enPassantSquare(), moveBuffer()) == 0;
     }
 
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == currentTurn) {
+            return positionStatus() == GameStatus.CHECKMATE;
+        }
         if (isInCheck(teamColor)) {
             return isMate(teamColor);
         }
@@ -368,6 +798,9 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == currentTurn) {
+            return positionStatus() == GameStatus.STALEMATE;
+        }
         if (!isInCheck(teamColor)) {
             return isMate(teamColor);
         }
@@ -375,6 +808,34 @@ public class ChessGame {
         return false;
     }
 
+    /**
+     * Gets how the game stands for the team whose turn it is. Check, checkmate
+     * and stalemate come from a single legal move generation, which is cached
+     * against the position's Zobrist key, so asking again before the position
+     * changes costs a key comparison.
+     *
+     * @return {@link GameStatus#DRAW} if the game was drawn by repetition or the
+     * fifty-move rule, otherwise the status of the current position
+     */
+    public GameStatus getStatus() {
+        return drawReason != null ? GameStatus.DRAW : positionStatus();
+    }
+
+    private GameStatus positionStatus() {
+        long key = getZobristKey();
+        if (status == null || statusKey != key) {
+            boolean check = isInCheck(currentTurn);
+            boolean stuck = generateLegalMoves(moveBuffer()) == 0;
+            if (stuck) {
+                status = check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            } else {
+                status = check ? GameStatus.CHECK : GameStatus.NORMAL;
+            }
+            statusKey = key;
+        }
+        return status;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -382,6 +843,14 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        historyCount = 0;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        plyCount = 0;
+        playedCount = 0;
+        if (undo != null) {
+            undo.clear();
+        }
     }
 
     /**
@@ -404,10 +873,37 @@ public class ChessGame {
         return finished;
     }
 
+    /**
+     * @return the winner's name, or null if nobody has won (including drawn
+     * games). A checkmate names the winning color, "white" or "black", until
+     * a caller that knows the players sets it.
+     */
     public String getWinner() {
         return winner;
     }
 
+    /**
+     * @return why the game was drawn by repetition or the fifty-move rule, or null
+     * if it was not
+     */
+    public DrawReason getDrawReason() {
+        return drawReason;
+    }
+
+    /**
+     * @return halfmoves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return number of the current full move, starting at 1 and going up after black moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
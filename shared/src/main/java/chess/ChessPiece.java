@@ -1,5 +1,11 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -11,9 +17,23 @@ import java.util.Objects;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Pieces are immutable, so {@link #of} hands out one shared instance per color
+ * and type instead of allocating, and JSON is read back through it as well.
  */
+@JsonAdapter(ChessPiece.Adapter.class)
 public class ChessPiece {
 
+    private static final ChessPiece[] PIECES = new ChessPiece[ChessBoard.PIECE_KINDS];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[ChessBoard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -22,6 +42,21 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * @return the shared piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[ChessBoard.pieceIndex(pieceColor, type)];
+    }
+
+    /**
+     * @param pieceIndex index from {@link ChessBoard#pieceIndex}
+     * @return the shared piece with that index
+     */
+    static ChessPiece of(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -49,35 +84,18 @@ public class ChessPiece {
     }
 
     /**
-     * Calculates all the positions a chess piece can move to
-     * Does not take into account moves that are illegal due to leaving the king in
-     * danger
-     *
-     * @return Collection of valid moves
+     * @return index of this kind of piece in the board's bitboard table
      */
+    int index() {
+        return ChessBoard.pieceIndex(pieceColor, type);
+    }
 
-    private void simpleMove(int[][] directions, ChessPiece piece, ChessPosition position, List<ChessMove> moves, ChessBoard board, boolean sliding){
-        for (int[] dir : directions) {
-            int row = position.getRow() + dir[0];
-            int col = position.getColumn() + dir[1];
-
-            while(row >= 1 && row <= 8 && col >= 1 && col <= 8) {
-                ChessPosition newPos = new ChessPosition(row, col);
-                ChessPiece target = board.getPiece(newPos);
-
-                if (target == null) {
-                    moves.add(new ChessMove(position, newPos, null));
-                } else {
-                    if (target.getTeamColor() != piece.getTeamColor()) {
-                        moves.add(new ChessMove(position, newPos, null));
-                    }
-                    break;
-                }
+    private static final PieceType[] PROMOTION_PIECES =
+            {PieceType.QUEEN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK};
 
-                if (!sliding) {break;}
-                row += dir[0];
-                col += dir[1];
-            }
+    private void addTargets(ChessPosition from, long targets, List<ChessMove> moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            moves.add(new ChessMove(from, Bitboards.position(Long.numberOfTrailingZeros(targets)), null));
         }
     }
 
@@ -89,79 +107,68 @@ public class ChessPiece {
         int last = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 8 : 1;
         boolean promo = row + dir == last;
 
-        ChessPiece.PieceType[] promoPieces = {PieceType.QUEEN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK};
+        long all = board.getOccupancy();
+        long enemy = all & ~board.getOccupancy(piece.getTeamColor());
 
         //Forward move
-        ChessPosition forward = new ChessPosition(row + dir, col);
-        if (board.getPiece(forward) == null) {
+        ChessPosition forward = ChessPosition.of(row + dir, col);
+        if (!Bitboards.contains(all, Bitboards.square(forward))) {
             if (promo) {
-                for (PieceType p : promoPieces) {
-                    moves.add(new ChessMove(pos, forward, p));
-                }
+                addPromotionMoves(pos, forward, moves);
             } else {
                 moves.add(new ChessMove(pos, forward, null));
             }
             // Double move from start
-            ChessPosition doubleForward = new ChessPosition(row + 2*dir, col);
-            if (row == start && board.getPiece(forward) == null && board.getPiece(doubleForward) == null) {
-                moves.add(new ChessMove(pos, doubleForward, null));
+            if (row == start && !Bitboards.contains(all, Bitboards.square(row + 2*dir, col))) {
+                moves.add(new ChessMove(pos, ChessPosition.of(row + 2*dir, col), null));
             }
         }
 
         // Captures
-        int[] dc = {-1, 1};
-        for (int d : dc) {
-            int newCol = col + d;
-
-            if (newCol < 1 || newCol > 8) {continue;}
-
-            ChessPosition diag = new ChessPosition(row + dir, newCol);
-            ChessPiece target = board.getPiece(diag);
-
-            if (target == null || target.getTeamColor() == piece.getTeamColor()) {continue;}
-
-            if (promo) {
-                addPromotionMoves(pos, diag, moves);
-            } else {
-                moves.add(new ChessMove(pos, diag, null));
-            }
+        long captures = Attacks.pawn(piece.getTeamColor(), Bitboards.square(pos)) & enemy;
+        if (!promo) {
+            addTargets(pos, captures, moves);
+            return;
+        }
+        for (; captures != 0; captures &= captures - 1) {
+            addPromotionMoves(pos, Bitboards.position(Long.numberOfTrailingZeros(captures)), moves);
         }
     }
 
     private void addPromotionMoves(ChessPosition from, ChessPosition to, List<ChessMove> moves) {
-        ChessPiece.PieceType[] promoPieces =
-                {PieceType.QUEEN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK};
-
-        for (PieceType p : promoPieces) {
+        for (PieceType p : PROMOTION_PIECES) {
             moves.add(new ChessMove(from, to, p));
         }
     }
 
-
+    /**
+     * Calculates all the positions a chess piece can move to
+     * Does not take into account moves that are illegal due to leaving the king in
+     * danger
+     *
+     * @return Collection of valid moves
+     */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         ChessPiece piece = board.getPiece(myPosition);
         List<ChessMove> moves = new ArrayList<>();
 
-        int[][] royalDirections = {{1,1},{1,-1},{-1,1},{-1,-1},{1,0},{0,1},{-1,0},{0,-1}};
-        int[][] diagonalDirections = {{1,1},{1,-1},{-1,1},{-1,-1}};
-        int[][] straightDirections = {{1,0},{0,1},{-1,0},{0,-1}};
-        int[][] lDirections = {{2,1},{2,-1},{-2,1},{-2,-1},{1,2},{-1,2},{1,-2},{-1,-2}};
-
-        switch (piece.getPieceType()) {
-            case PAWN -> pawnMove(piece, myPosition, board, moves);
-            case KING -> simpleMove(royalDirections, piece, myPosition, moves, board, false);
-            case QUEEN -> simpleMove(royalDirections, piece, myPosition, moves, board, true);
-            case BISHOP -> simpleMove(diagonalDirections, piece, myPosition, moves, board, true);
-            case ROOK -> simpleMove(straightDirections, piece, myPosition, moves, board, true);
-            case KNIGHT -> simpleMove(lDirections, piece, myPosition, moves, board, false);
+        if (piece.getPieceType() == PieceType.PAWN) {
+            pawnMove(piece, myPosition, board, moves);
+            return moves;
         }
 
+        long attacks = Attacks.piece(piece.getPieceType(), Bitboards.square(myPosition), board.getOccupancy());
+        addTargets(myPosition, attacks & ~board.getOccupancy(piece.getTeamColor()), moves);
+
         return moves;
     }
 
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -173,4 +180,37 @@ public class ChessPiece {
     public int hashCode() {
         return Objects.hash(pieceColor, type);
     }
+
+    /**
+     * Writes the same {"pieceColor":..,"type":..} object Gson would, but reads
+     * it back as the shared instance.
+     */
+    static final class Adapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("pieceColor").value(piece.pieceColor.name());
+            out.name("type").value(piece.type.name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new IOException("Chess piece needs a pieceColor and a type");
+            }
+            return of(color, type);
+        }
+    }
 }
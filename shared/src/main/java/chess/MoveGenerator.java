@@ -0,0 +1,262 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Generates legal moves as {@link PackedMove} ints straight into a caller's
+ * buffer, without creating any objects.
+ * <p>
+ * Legality is worked out once per position rather than per move: the pieces
+ * giving check give a mask of squares that stop the check, and pieces pinned
+ * to their king may only move along the pin line. Only king steps and en
+ * passant captures still need an attack test of their own.
+ * <p>
+ * A generator keeps that per-position state in its fields, so one instance
+ * should not be shared between threads.
+ */
+final class MoveGenerator {
+
+    /** Enough room for the moves of any reachable position. */
+    static final int MAX_MOVES = 256;
+
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+
+    private static final PieceType[] NON_KING_PIECES =
+            {PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN};
+
+    private ChessBoard board;
+    private TeamColor side;
+    private long fromMask;
+    private long own;
+    private long enemy;
+    private long all;
+    private int king;
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+
+    /**
+     * Writes every legal move for side into buffer.
+     *
+     * @param castling   bit set of the castling rights still available
+     * @param epSquare   square a pawn may capture onto en passant, or {@link ChessBoard#NO_SQUARE}
+     * @return number of moves written
+     */
+    int generateLegal(ChessBoard board, TeamColor side, int castling, int epSquare, int[] buffer) {
+        return generateLegal(board, side, castling, epSquare, -1L, buffer);
+    }
+
+    /**
+     * Same as {@link #generateLegal(ChessBoard, TeamColor, int, int, int[])}, but only
+     * for moves starting on a square in fromMask.
+     */
+    int generateLegal(ChessBoard board, TeamColor side, int castling, int epSquare, long fromMask, int[] buffer) {
+        analyze(board, side, fromMask);
+        int count = generateKingMoves(buffer, 0);
+
+        // in double check only the king can move
+        if (Long.bitCount(checkers) > 1) {return count;}
+
+        count = generatePawnMoves(epSquare, buffer, count);
+        for (PieceType type : NON_KING_PIECES) {
+            for (long pieces = board.getPieces(side, type) & fromMask; pieces != 0; pieces &= pieces - 1) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                long targets = Attacks.piece(type, from, all) & ~own & allowedTargets(from);
+                count = addTargets(from, targets, buffer, count);
+            }
+        }
+
+        if (checkers == 0 && king != ChessBoard.NO_SQUARE && Bitboards.contains(fromMask, king)) {
+            count = generateCastles(castling, buffer, count);
+        }
+        return count;
+    }
+
+    private void analyze(ChessBoard board, TeamColor side, long fromMask) {
+        this.board = board;
+        this.side = side;
+        this.fromMask = fromMask;
+        own = board.getOccupancy(side);
+        enemy = board.getOccupancy(opponent(side));
+        all = own | enemy;
+        king = board.getKingSquare(side);
+
+        if (king == ChessBoard.NO_SQUARE) {
+            checkers = 0;
+            checkMask = -1L;
+            pinned = 0;
+            return;
+        }
+        checkers = board.attackersTo(king, opponent(side), all);
+        checkMask = checkers == 0 ? -1L : checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+        pinned = findPinned();
+    }
+
+    /**
+     * A piece is pinned when it is the only piece between its king and an
+     * enemy slider that would otherwise see the king.
+     */
+    private long findPinned() {
+        TeamColor them = opponent(side);
+        long queens = board.getPieces(them, PieceType.QUEEN);
+        long snipers = (Attacks.rook(king, 0) & (board.getPieces(them, PieceType.ROOK) | queens))
+                | (Attacks.bishop(king, 0) & (board.getPieces(them, PieceType.BISHOP) | queens));
+        long result = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & all;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                result |= blockers & own;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return squares a non-king piece on from may move to without leaving its king in check
+     */
+    private long allowedTargets(int from) {
+        return Bitboards.contains(pinned, from) ? checkMask & Attacks.line(king, from) : checkMask;
+    }
+
+    private int addTargets(int from, long targets, int[] buffer, int count) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            buffer[count++] = PackedMove.of(from, to, Bitboards.contains(enemy, to) ? PackedMove.CAPTURE : 0);
+        }
+        return count;
+    }
+
+    private int generateKingMoves(int[] buffer, int count) {
+        if (king == ChessBoard.NO_SQUARE || !Bitboards.contains(fromMask, king)) {return count;}
+
+        // the king must not shadow a slider's attack on the square it steps back to
+        long withoutKing = all & ~Bitboards.bit(king);
+        TeamColor them = opponent(side);
+        for (long targets = Attacks.king(king) & ~own; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (!board.isAttacked(to, them, withoutKing, 0)) {
+                buffer[count++] = PackedMove.of(king, to, Bitboards.contains(enemy, to) ? PackedMove.CAPTURE : 0);
+            }
+        }
+        return count;
+    }
+
+    private int generatePawnMoves(int epSquare, int[] buffer, int count) {
+        boolean white = side == TeamColor.WHITE;
+        int push = white ? 8 : -8;
+        int startRow = white ? 2 : 7;
+        int lastRow = white ? 8 : 1;
+        long pawns = board.getPieces(side, PieceType.PAWN) & fromMask;
+
+        for (long movers = pawns; movers != 0; movers &= movers - 1) {
+            int from = Long.numberOfTrailingZeros(movers);
+            long allowed = allowedTargets(from);
+            int to = from + push;
+            boolean promotes = Bitboards.row(to) == lastRow;
+
+            if (!Bitboards.contains(all, to)) {
+                if (Bitboards.contains(allowed, to)) {
+                    count = addPawnMove(from, to, 0, promotes, buffer, count);
+                }
+                int twoStep = to + push;
+                if (Bitboards.row(from) == startRow && !Bitboards.contains(all, twoStep)
+                        && Bitboards.contains(allowed, twoStep)) {
+                    buffer[count++] = PackedMove.of(from, twoStep, PackedMove.DOUBLE_PUSH);
+                }
+            }
+
+            for (long captures = Attacks.pawn(side, from) & enemy & allowed; captures != 0;
+                 captures &= captures - 1) {
+                count = addPawnMove(from, Long.numberOfTrailingZeros(captures), PackedMove.CAPTURE, promotes,
+                        buffer, count);
+            }
+        }
+
+        return generateEnPassant(epSquare, pawns, push, buffer, count);
+    }
+
+    private int generateEnPassant(int target, long pawns, int push, int[] buffer, int count) {
+        if (target == ChessBoard.NO_SQUARE || Bitboards.contains(all, target)
+                || !Bitboards.contains(board.getPieces(opponent(side), PieceType.PAWN), target - push)) {
+            return count;
+        }
+
+        // en passant empties two squares on the capturer's rank, which can expose the king
+        // sideways, so each candidate gets a full test instead of the pin and check masks
+        for (long attackers = Attacks.pawn(opponent(side), target) & pawns; attackers != 0;
+             attackers &= attackers - 1) {
+            int move = PackedMove.of(Long.numberOfTrailingZeros(attackers), target,
+                    PackedMove.CAPTURE | PackedMove.EN_PASSANT);
+            if (isLegal(board, side, move)) {
+                buffer[count++] = move;
+            }
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int from, int to, int flags, boolean promotes, int[] buffer, int count) {
+        if (!promotes) {
+            buffer[count++] = PackedMove.of(from, to, flags);
+            return count;
+        }
+        buffer[count++] = PackedMove.of(from, to, PieceType.QUEEN, flags);
+        buffer[count++] = PackedMove.of(from, to, PieceType.KNIGHT, flags);
+        buffer[count++] = PackedMove.of(from, to, PieceType.BISHOP, flags);
+        buffer[count++] = PackedMove.of(from, to, PieceType.ROOK, flags);
+        return count;
+    }
+
+    private int generateCastles(int castling, int[] buffer, int count) {
+        boolean white = side == TeamColor.WHITE;
+        int kingSide = white ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenSide = white ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        int base = white ? 0 : 56;
+        if ((castling & (kingSide | queenSide)) == 0 || king != base + 4) {return count;}
+
+        TeamColor them = opponent(side);
+        long rooks = board.getPieces(side, PieceType.ROOK);
+        if ((castling & kingSide) != 0 && Bitboards.contains(rooks, base + 7)
+                && (all & (0x60L << base)) == 0
+                && !board.isAttacked(base + 5, them, all, 0)
+                && !board.isAttacked(base + 6, them, all, 0)) {
+            buffer[count++] = PackedMove.of(king, base + 6, PackedMove.CASTLE);
+        }
+        if ((castling & queenSide) != 0 && Bitboards.contains(rooks, base)
+                && (all & (0x0EL << base)) == 0
+                && !board.isAttacked(base + 3, them, all, 0)
+                && !board.isAttacked(base + 2, them, all, 0)) {
+            buffer[count++] = PackedMove.of(king, base + 2, PackedMove.CASTLE);
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a pseudo-legal move leaves the mover's king safe, by
+     * testing the king square against the occupancy the move would produce.
+     * The board itself is not touched.
+     */
+    static boolean isLegal(ChessBoard board, TeamColor side, int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int kingSquare = board.getKingSquare(side);
+        if (kingSquare == ChessBoard.NO_SQUARE) {return true;}
+
+        if (kingSquare == from) {
+            kingSquare = to;
+        }
+        long removed = Bitboards.bit(to);
+        if (PackedMove.isEnPassant(move)) {
+            removed |= Bitboards.bit(side == TeamColor.WHITE ? to - 8 : to + 8);
+        }
+        long occupancy = (board.getOccupancy() & ~Bitboards.bit(from) & ~removed) | Bitboards.bit(to);
+        return !board.isAttacked(kingSquare, opponent(side), occupancy, removed);
+    }
+
+    static TeamColor opponent(TeamColor side) {
+        return side == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,106 @@
+package chess;
+
+/**
+ * Encodes a move in a single int so move lists can live in plain int arrays.
+ * <p>
+ * Layout, low bits first: 6 bits start square, 6 bits end square (see
+ * {@link Bitboards} for square numbering), 3 bits promotion piece
+ * (0 for none, otherwise {@code PieceType.ordinal() + 1}) and then one bit
+ * each for the capture, double pawn push, en passant and castle flags.
+ * Zero is never a real move and is used as {@link #NONE}.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final int SQUARES_AND_PROMOTION = (1 << 15) - 1;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promo = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promo << 12) | flags;
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promo = (move >>> 12) & 7;
+        return promo == 0 ? null : TYPES[promo - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Drops the flag bits, leaving what a {@link ChessMove} carries. Two packed
+     * moves describe the same ChessMove when their bases are equal.
+     */
+    public static int base(int move) {
+        return move & SQUARES_AND_PROMOTION;
+    }
+
+    /**
+     * Packs a ChessMove. The result has no flags set; use
+     * {@link ChessGame#findLegalMove} to get the fully flagged legal move.
+     */
+    public static int fromChessMove(ChessMove move) {
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, for example e7e8q
+     */
+    public static String toString(int move) {
+        StringBuilder out = new StringBuilder(5);
+        appendSquare(out, from(move));
+        appendSquare(out, to(move));
+        ChessPiece.PieceType promo = promotion(move);
+        if (promo != null) {
+            out.append(promo == ChessPiece.PieceType.KNIGHT ? 'n' : Character.toLowerCase(promo.name().charAt(0)));
+        }
+        return out.toString();
+    }
+
+    private static void appendSquare(StringBuilder out, int square) {
+        out.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+}
@@ -0,0 +1,125 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * {@link Perft} on a {@link ForkJoinPool}: the move tree is split into one task
+ * per move until only a few plies remain, and each task counts its subtree
+ * sequentially on its own copy of the game, so tasks share nothing.
+ * <p>
+ * Besides single counts it checks whole batches of positions against their
+ * expected node counts, with every position's tree split over the same pool.
+ */
+public final class ParallelPerft {
+
+    // subtrees this shallow are cheaper to count than to split further
+    private static final int SEQUENTIAL_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * A position to validate and the node count it must produce.
+     */
+    public record Case(String name, ChessGame game, int depth, long expected) {
+    }
+
+    /**
+     * The count a {@link Case} actually produced.
+     */
+    public record Outcome(Case testCase, long nodes) {
+        public boolean passed() {
+            return nodes == testCase.expected();
+        }
+    }
+
+    public ParallelPerft() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelPerft(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Same result as {@link Perft#count}. The game is not modified.
+     */
+    public long count(ChessGame game, int depth) {
+        return pool.invoke(new PerftTask(new ChessGame(game), depth));
+    }
+
+    /**
+     * Same result as {@link Perft#divide}, with the root moves counted in parallel.
+     */
+    public Map<String, Long> divide(ChessGame game, int depth) {
+        int[] moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateLegalMoves(moves);
+
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(pool.submit(new PerftTask(childOf(game, moves[i]), depth - 1)));
+        }
+        Map<String, Long> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put(PackedMove.toString(moves[i]), tasks.get(i).join());
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts every case at once on the pool.
+     *
+     * @return one outcome per case, in the order given
+     */
+    public List<Outcome> validate(List<Case> cases) {
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>(cases.size());
+        for (Case testCase : cases) {
+            tasks.add(pool.submit(new PerftTask(new ChessGame(testCase.game()), testCase.depth())));
+        }
+        List<Outcome> outcomes = new ArrayList<>(cases.size());
+        for (int i = 0; i < cases.size(); i++) {
+            outcomes.add(new Outcome(cases.get(i), tasks.get(i).join()));
+        }
+        return outcomes;
+    }
+
+    private static ChessGame childOf(ChessGame game, int move) {
+        ChessGame child = new ChessGame(game);
+        child.makeMove(move);
+        return child;
+    }
+
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        PerftTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                return Perft.count(game, depth);
+            }
+            int[] moves = new int[ChessGame.MAX_MOVES];
+            int count = game.generateLegalMoves(moves);
+
+            List<PerftTask> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                children.add(new PerftTask(childOf(game, moves[i]), depth - 1));
+            }
+            long nodes = 0;
+            for (PerftTask child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree below a position. The counts for
+ * well-known positions are published, so comparing against them checks the move
+ * generator, and nodes per second measures its speed.
+ * <p>
+ * The walk plays and takes back packed moves on the given game, which is left
+ * as it was found.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * @return number of move sequences of exactly depth plies from the position
+     */
+    public static long count(ChessGame game, int depth) {
+        if (depth <= 0) {return 1;}
+        return count(game, depth, new int[depth][ChessGame.MAX_MOVES]);
+    }
+
+    /**
+     * Splits {@link #count} by first move, which narrows down where a wrong
+     * total comes from.
+     *
+     * @return node count below each legal move, keyed in coordinate notation
+     * (for example e2e4) and in generation order
+     */
+    public static Map<String, Long> divide(ChessGame game, int depth) {
+        int[][] buffers = new int[Math.max(depth, 1)][ChessGame.MAX_MOVES];
+        int[] moves = buffers[buffers.length - 1];
+        int count = game.generateLegalMoves(moves);
+
+        Map<String, Long> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            nodes.put(PackedMove.toString(moves[i]), depth <= 1 ? 1 : count(game, depth - 1, buffers));
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static long count(ChessGame game, int depth, int[][] buffers) {
+        // one buffer per ply so deeper calls do not overwrite this one's moves
+        int[] moves = buffers[depth - 1];
+        int count = game.generateLegalMoves(moves);
+        if (depth == 1) {return count;}
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            nodes += count(game, depth - 1, buffers);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Prints the divide of the starting position, then the total and speed.
+     * Usage: {@code Perft [depth]}, depth defaulting to 5.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        long start = System.nanoTime();
+        Map<String, Long> nodes = divide(new ChessGame(), depth);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (Map.Entry<String, Long> entry : nodes.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Nodes: " + total);
+        System.out.printf("Time: %d ms (%.0f nodes/sec)%n", elapsed / 1_000_000, total * 1e9 / Math.max(elapsed, 1));
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * What each move made through {@link ChessGame#makeMove(int)} destroyed, so
+ * {@link ChessGame#unmakeMove()} can put it back: the move itself, the piece it
+ * captured, the game's packed castling, en passant and halfmove clock state, and
+ * the history key its own position overwrote.
+ * <p>
+ * Entries live in parallel arrays that only grow when a line gets longer than
+ * any before it, so making and unmaking moves does not allocate.
+ */
+final class UndoStack {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private ChessPiece[] captured = new ChessPiece[INITIAL_CAPACITY];
+    private int[] states = new int[INITIAL_CAPACITY];
+    private long[] displacedKeys = new long[INITIAL_CAPACITY];
+    private int size;
+
+    void push(int move, ChessPiece capturedPiece, int state, long displacedKey) {
+        if (size == moves.length) {
+            grow();
+        }
+        moves[size] = move;
+        captured[size] = capturedPiece;
+        states[size] = state;
+        displacedKeys[size] = displacedKey;
+        size++;
+    }
+
+    void pop() {
+        captured[--size] = null;
+    }
+
+    void clear() {
+        Arrays.fill(captured, 0, size, null);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int move() {
+        return moves[size - 1];
+    }
+
+    ChessPiece captured() {
+        return captured[size - 1];
+    }
+
+    int state() {
+        return states[size - 1];
+    }
+
+    long displacedKey() {
+        return displacedKeys[size - 1];
+    }
+
+    private void grow() {
+        int capacity = moves.length * 2;
+        moves = Arrays.copyOf(moves, capacity);
+        captured = Arrays.copyOf(captured, capacity);
+        states = Arrays.copyOf(states, capacity);
+        displacedKeys = Arrays.copyOf(displacedKeys, capacity);
+    }
+}
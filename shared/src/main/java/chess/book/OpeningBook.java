@@ -0,0 +1,159 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only opening book: for each position, the moves played from it and
+ * how often. The book file is memory-mapped rather than loaded, so opening
+ * one is immediate whatever its size, and the operating system shares and
+ * pages it in as lookups touch it.
+ * <p>
+ * The file is a 16-byte header (magic number, format version and entry count)
+ * followed by 16-byte entries: position key, {@link PackedMove} and weight.
+ * Entries are sorted by key, and the entries of one position by falling
+ * weight, so lookups are a binary search and the first entry found is the
+ * most played move. Lookups allocate nothing, and any number of threads can
+ * share a book. Books are written by {@link OpeningBookBuilder}.
+ */
+public final class OpeningBook {
+
+    static final int MAGIC = 0x43424B31;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 16;
+
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer entries, int size) {
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * Maps a book file into memory.
+     *
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            long count = header.getLong();
+            if (magic != MAGIC || version != VERSION || count < 0
+                    || count > Integer.MAX_VALUE / ENTRY_BYTES || length != HEADER_BYTES + count * ENTRY_BYTES) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, count * ENTRY_BYTES),
+                    (int) count);
+        }
+    }
+
+    /**
+     * @return number of (position, move) entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the book moves for a position, most played first.
+     *
+     * @param key     the position's {@link ChessGame#getZobristKey()}
+     * @param moves   where to write the {@link PackedMove}s
+     * @param weights where to write how often each was played, or null
+     * @return how many moves were written, at most moves.length
+     */
+    public int find(long key, int[] moves, int[] weights) {
+        int count = 0;
+        for (int i = firstEntry(key); i < size && key(i) == key && count < moves.length; i++) {
+            moves[count] = move(i);
+            if (weights != null) {
+                weights[count] = weight(i);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the most played book move in the game's position, or
+     * {@link PackedMove#NONE} if the position is not in the book
+     */
+    public int bestMove(ChessGame game) {
+        long key = game.getZobristKey();
+        int first = firstEntry(key);
+        return first < size && key(first) == key ? move(first) : PackedMove.NONE;
+    }
+
+    /**
+     * Picks a book move at random, each in proportion to how often it was
+     * played, so repeated games do not all follow the same line.
+     *
+     * @return the move, or {@link PackedMove#NONE} if the position is not in the book
+     */
+    public int pickMove(ChessGame game, RandomGenerator random) {
+        long key = game.getZobristKey();
+        int first = firstEntry(key);
+        long total = 0;
+        int end = first;
+        for (; end < size && key(end) == key; end++) {
+            total += weight(end);
+        }
+        if (total == 0) {
+            return PackedMove.NONE;
+        }
+        long target = random.nextLong(total);
+        for (int i = first; i < end; i++) {
+            target -= weight(i);
+            if (target < 0) {
+                return move(i);
+            }
+        }
+        return move(end - 1);
+    }
+
+    // index of the first entry whose key is not below key
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(int entry) {
+        return entries.getLong(entry * ENTRY_BYTES);
+    }
+
+    private int move(int entry) {
+        return entries.getInt(entry * ENTRY_BYTES + 8);
+    }
+
+    private int weight(int entry) {
+        return entries.getInt(entry * ENTRY_BYTES + 12);
+    }
+}
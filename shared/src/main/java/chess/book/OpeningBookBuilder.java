@@ -0,0 +1,108 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import chess.pgn.PgnGame;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the opening moves of many games and writes them as an
+ * {@link OpeningBook} file. Each move's weight is the number of lines that
+ * played it from that position; transpositions count towards the same
+ * position.
+ */
+public final class OpeningBookBuilder {
+
+    private final int maxPlies;
+    private final Map<Entry, int[]> weights = new HashMap<>();
+
+    private record Entry(long key, int move) {
+    }
+
+    /**
+     * @param maxPlies how many halfmoves of each line go into the book
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        if (maxPlies < 1) {
+            throw new IllegalArgumentException("A book needs at least one ply per line");
+        }
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Adds a line played from the standard starting position.
+     *
+     * @throws InvalidMoveException if a move is not legal where it is played
+     */
+    public void add(List<ChessMove> line) throws InvalidMoveException {
+        add(new ChessGame(), line);
+    }
+
+    /**
+     * Adds the main line of a PGN game, from its starting position.
+     *
+     * @throws InvalidMoveException if a move is not legal where it is played
+     */
+    public void add(PgnGame game) throws InvalidMoveException {
+        add(game.startingPosition(), game.moves());
+    }
+
+    /**
+     * Adds a line played from the given position, which is played on.
+     *
+     * @throws InvalidMoveException if a move is not legal where it is played
+     */
+    public void add(ChessGame start, List<ChessMove> line) throws InvalidMoveException {
+        int plies = Math.min(line.size(), maxPlies);
+        for (int i = 0; i < plies; i++) {
+            int move = start.findLegalMove(line.get(i));
+            if (move == PackedMove.NONE) {
+                throw new InvalidMoveException("Invalid move: " + line.get(i));
+            }
+            weights.computeIfAbsent(new Entry(start.getZobristKey(), move), entry -> new int[1])[0]++;
+            start.makeMove(move);
+        }
+    }
+
+    /**
+     * @return number of distinct (position, move) entries collected so far
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Writes the book, replacing any file at path.
+     */
+    public void write(Path path) throws IOException {
+        List<Map.Entry<Entry, int[]>> sorted = new ArrayList<>(weights.entrySet());
+        sorted.sort(Comparator.comparingLong((Map.Entry<Entry, int[]> e) -> e.getKey().key())
+                .thenComparingInt(e -> -e.getValue()[0])
+                .thenComparingInt(e -> e.getKey().move()));
+
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeLong(sorted.size());
+            for (Map.Entry<Entry, int[]> entry : sorted) {
+                out.writeLong(entry.getKey().key());
+                out.writeInt(entry.getKey().move());
+                out.writeInt(entry.getValue()[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Searches one position on several threads in the Lazy SMP style: every
+ * thread runs its own iterative-deepening search of the same root on its own
+ * copy of the game, and they cooperate only through a shared
+ * {@link TranspositionTable}. Helpers fill the table ahead of the main search,
+ * so the main search finds more cutoffs and reaches each depth sooner.
+ * <p>
+ * Half the helpers skip the first iteration, so they stay a ply ahead rather
+ * than repeating the main search's work. The answer is the deepest completed
+ * iteration, preferring the main search on ties.
+ * <p>
+ * With one thread the search runs on the caller's thread, and with a depth or
+ * node limit a fresh searcher returns the same result every time. Only one
+ * search may run at a time.
+ */
+public final class ParallelSearcher implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final Searcher[] searchers;
+    private final ExecutorService helpers;
+
+    private volatile AtomicBoolean stopFlag;
+
+    /**
+     * @param threads number of threads to search with, the calling thread included
+     */
+    public ParallelSearcher(int threads) {
+        this(threads, new TranspositionTable(Searcher.DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param threads number of threads to search with, the calling thread included
+     * @param table   table to share between the threads
+     */
+    public ParallelSearcher(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        this.table = table;
+        searchers = new Searcher[threads];
+        for (int i = 0; i < threads; i++) {
+            searchers[i] = new Searcher(table);
+        }
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Single-threaded searcher whose results depend only on the position, the
+     * limits and the searches it ran before, for tests and reproducible analysis.
+     */
+    public static ParallelSearcher deterministic() {
+        return new ParallelSearcher(1);
+    }
+
+    public int getThreads() {
+        return searchers.length;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Searches the position for the side to move until the main search reaches
+     * a limit. The game itself is left untouched.
+     */
+    public synchronized SearchResult search(ChessGame game, SearchLimits limits) {
+        AtomicBoolean stop = new AtomicBoolean();
+        stopFlag = stop;
+        table.newSearch();
+
+        @SuppressWarnings("unchecked")
+        Future<SearchResult>[] running = new Future[searchers.length - 1];
+        SearchLimits helperLimits = SearchLimits.depth(limits.maxDepth());
+        for (int i = 1; i < searchers.length; i++) {
+            Searcher helper = searchers[i];
+            ChessGame copy = new ChessGame(game);
+            int firstDepth = 1 + (i & 1);
+            running[i - 1] = helpers.submit(() -> helper.search(copy, helperLimits, firstDepth, stop));
+        }
+
+        SearchResult best = searchers[0].search(new ChessGame(game), limits, 1, stop);
+        stop.set(true);
+
+        long nodes = best.nodes();
+        for (Future<SearchResult> future : running) {
+            SearchResult result = await(future);
+            nodes += result.nodes();
+            if (result.depth() > best.depth() && result.move() != PackedMove.NONE) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.move(), best.score(), best.depth(), nodes);
+    }
+
+    /**
+     * Asks a running search, from another thread, to finish early.
+     */
+    public void stop() {
+        AtomicBoolean stop = stopFlag;
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    private static SearchResult await(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search helpers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+
+    /**
+     * Shuts the helper threads down.
+     */
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package chess.engine;
+
+/**
+ * How much a search may spend. Zero time or nodes means no limit of that kind;
+ * the depth always applies.
+ *
+ * @param maxDepth      deepest iteration to start, in plies
+ * @param maxTimeMillis wall-clock budget
+ * @param maxNodes      node budget, counting quiescence nodes
+ */
+public record SearchLimits(int maxDepth, long maxTimeMillis, long maxNodes) {
+
+    /** Deepest search the engine supports. */
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_DEPTH);
+        }
+        if (maxTimeMillis < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Search budgets cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    public static SearchLimits time(long maxTimeMillis) {
+        return new SearchLimits(MAX_DEPTH, maxTimeMillis, 0);
+    }
+
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(MAX_DEPTH, 0, maxNodes);
+    }
+}
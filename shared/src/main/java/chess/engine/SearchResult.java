@@ -0,0 +1,31 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.PackedMove;
+
+/**
+ * Outcome of a search.
+ *
+ * @param move  best move found as a {@link PackedMove}, or {@link PackedMove#NONE}
+ *              if the side to move has no legal move
+ * @param score centipawns from the point of view of the side to move; mates
+ *              score near {@link Searcher#MATE}
+ * @param depth deepest iteration that finished
+ * @param nodes positions visited
+ */
+public record SearchResult(int move, int score, int depth, long nodes) {
+
+    /**
+     * @return the best move, or null if there is none
+     */
+    public ChessMove bestMove() {
+        return move == PackedMove.NONE ? null : PackedMove.toChessMove(move);
+    }
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Searcher.MATE - Searcher.MAX_PLY;
+    }
+}
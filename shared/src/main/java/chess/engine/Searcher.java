@@ -0,0 +1,359 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PackedMove;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative-deepening negamax alpha-beta search with a quiescence search at the
+ * leaves.
+ * <p>
+ * Results are kept in a {@link TranspositionTable}, which several searchers
+ * can share. Moves are tried in order of the stored best move for the
+ * position, then captures by most valuable victim and least valuable attacker, then quiet
+ * moves that caused cutoffs at the same ply (killers), then quiet moves by how
+ * often they caused cutoffs anywhere (history).
+ * <p>
+ * The search plays and takes back moves on the game it is given and leaves it
+ * as it found it. Every buffer is allocated up front, so a search allocates
+ * nothing; reuse one searcher per thread, and never share one between threads.
+ */
+public final class Searcher {
+
+    /** Score of delivering mate right now; a mate n plies away scores MATE - n. */
+    public static final int MATE = 30000;
+
+    /** Table size used when a searcher gets no table of its own. */
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    static final int MAX_PLY = 128;
+
+    private static final int INFINITY = 32000;
+    private static final int LIMIT_CHECK_INTERVAL = 2048;
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 26;
+
+    // rough piece values in PieceType order, only for ordering captures
+    private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private final int[][] moves = new int[MAX_PLY][ChessGame.MAX_MOVES];
+    private final int[][] scores = new int[MAX_PLY][ChessGame.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[2][64 * 64];
+    private final TranspositionTable table;
+
+    private ChessGame game;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean stopped;
+    private boolean mayStop;
+    private int rootBest;
+    private final AtomicBoolean stopRequest = new AtomicBoolean();
+    private AtomicBoolean stopFlag;
+
+    public Searcher() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param table where to keep results; searchers may share one
+     */
+    public Searcher(TranspositionTable table) {
+        this.table = table;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Searches the position for the side to move until a limit is reached.
+     * The first iteration always finishes, so a move comes back as long as one
+     * is legal.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        stopRequest.set(false);
+        table.newSearch();
+        return search(game, limits, 1, stopRequest);
+    }
+
+    /**
+     * Same as {@link #search(ChessGame, SearchLimits)}, but skipping the
+     * iterations before firstDepth, which lets parallel helpers work ahead of
+     * the main search, and stopping when the caller's flag is raised.
+     */
+    SearchResult search(ChessGame game, SearchLimits limits, int firstDepth, AtomicBoolean stop) {
+        this.game = game;
+        stopFlag = stop;
+        nodes = 0;
+        nodeLimit = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        deadline = limits.maxTimeMillis() > 0
+                ? System.nanoTime() + limits.maxTimeMillis() * 1_000_000 : Long.MAX_VALUE;
+        stopped = false;
+        mayStop = false;
+        prepareTables();
+
+        int bestMove = PackedMove.NONE;
+        int bestScore = 0;
+        int completed = 0;
+        for (int depth = Math.min(firstDepth, limits.maxDepth()); depth <= limits.maxDepth(); depth++) {
+            rootBest = bestMove;
+            int score = alphaBeta(depth, 0, -INFINITY, INFINITY, bestMove);
+            if (stopped) {break;}
+
+            bestMove = rootBest;
+            bestScore = score;
+            completed = depth;
+            mayStop = true;
+            // no deeper search finds a shorter mate
+            if (Math.abs(score) >= MATE - MAX_PLY) {break;}
+        }
+        this.game = null;
+        return new SearchResult(bestMove, bestScore, completed, nodes);
+    }
+
+    /**
+     * Asks a running search, from another thread, to finish with the best move
+     * of its last completed iteration. Unlike the budgets, this also cuts the
+     * first iteration short, in which case no move comes back.
+     */
+    public void stop() {
+        stopRequest.set(true);
+    }
+
+    private void prepareTables() {
+        for (int[] pair : killers) {
+            pair[0] = PackedMove.NONE;
+            pair[1] = PackedMove.NONE;
+        }
+        // older searches still hint at good moves, but should not drown out this one
+        for (int[] side : history) {
+            for (int i = 0; i < side.length; i++) {
+                side[i] >>= 2;
+            }
+        }
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta, int rootMove) {
+        if (ply > 0 && (game.getHalfmoveClock() >= ChessGame.FIFTY_MOVE_LIMIT || game.isRepetition())) {
+            return 0;
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (countNode()) {return 0;}
+
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = rootMove;
+        if (entry != 0) {
+            if (hashMove == PackedMove.NONE) {
+                hashMove = TranspositionTable.move(entry);
+            }
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int count = game.generateLegalMoves(moves[ply]);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, count, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            game.makeMove(move);
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, PackedMove.NONE);
+            game.unmakeMove();
+            if (stopped) {return 0;}
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        rememberCutoff(ply, depth, move);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER_BOUND
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Mate scores count plies from the root, but the table is shared between
+     * roots, so they are stored counting from the position itself.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {return score + ply;}
+        if (score <= -MATE + MAX_PLY) {return score - ply;}
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {return score - ply;}
+        if (score <= -MATE + MAX_PLY) {return score + ply;}
+        return score;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet, so the
+     * evaluation is never taken in the middle of an exchange. In check every
+     * evasion is searched instead.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        if (countNode()) {return 0;}
+        if (ply >= MAX_PLY - 1) {
+            return game.evaluate();
+        }
+
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = game.evaluate();
+            if (best >= beta) {return best;}
+            alpha = Math.max(alpha, best);
+        }
+
+        int count = game.generateLegalMoves(moves[ply]);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, count, PackedMove.NONE);
+
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            if (!inCheck && !isTactical(move)) {continue;}
+
+            game.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (stopped) {return 0;}
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {break;}
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and, every so often, checks the budgets.
+     *
+     * @return true if the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if ((nodes & (LIMIT_CHECK_INTERVAL - 1)) == 0 && (stopFlag.get()
+                || (mayStop && (nodes >= nodeLimit || System.nanoTime() >= deadline)))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private static boolean isTactical(int move) {
+        return PackedMove.isCapture(move) || PackedMove.promotion(move) != null;
+    }
+
+    private void scoreMoves(int ply, int count, int hashMove) {
+        int[] list = moves[ply];
+        int[] score = scores[ply];
+        ChessBoard board = game.getBoard();
+        int[] sideHistory = history[game.getTeamTurn().ordinal()];
+
+        for (int i = 0; i < count; i++) {
+            int move = list[i];
+            int from = PackedMove.from(move);
+            int to = PackedMove.to(move);
+            if (move == hashMove) {
+                score[i] = HASH_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move)) {
+                int victim = PackedMove.isEnPassant(move) ? PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()]
+                        : PIECE_VALUES[board.getPiece(to).getPieceType().ordinal()];
+                int attacker = PIECE_VALUES[board.getPiece(from).getPieceType().ordinal()];
+                score[i] = CAPTURE_SCORE + victim * 16 - attacker / 16;
+            } else if (PackedMove.promotion(move) != null) {
+                score[i] = CAPTURE_SCORE + PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+            } else if (move == killers[ply][0]) {
+                score[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                score[i] = KILLER_SCORE;
+            } else {
+                score[i] = sideHistory[from << 6 | to];
+            }
+        }
+    }
+
+    /**
+     * Moves the highest scoring move left in the list to index and returns it.
+     * Cutoffs usually come early, so sorting lazily beats sorting everything.
+     */
+    private int nextMove(int ply, int index, int count) {
+        int[] list = moves[ply];
+        int[] score = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (score[i] > score[best]) {
+                best = i;
+            }
+        }
+        int move = list[best];
+        list[best] = list[index];
+        list[index] = move;
+        int swap = score[best];
+        score[best] = score[index];
+        score[index] = swap;
+        return move;
+    }
+
+    private void rememberCutoff(int ply, int depth, int move) {
+        if (isTactical(move)) {return;}
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] sideHistory = history[game.getTeamTurn().ordinal()];
+        int index = PackedMove.from(move) << 6 | PackedMove.to(move);
+        sideHistory[index] += depth * depth;
+        if (sideHistory[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of search results keyed by position, which any number of
+ * searches can share without locking.
+ * <p>
+ * Each slot is two longs in one primitive array: the entry's data and the
+ * position key XORed with that data. Writers store both words with plain
+ * writes, so a reader can see a word from one writer and a word from another;
+ * such a torn slot no longer XORs back to the key being probed and reads as a
+ * miss. Keys are {@link ChessGame#getZobristKey()}, which already covers the
+ * pieces, side to move, castling rights and en passant file.
+ * <p>
+ * Data layout, low bits first: 19 bits best move, 16 bits score, 8 bits depth,
+ * 2 bits bound and 8 bits search generation.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int MOVE_BITS = 19;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + 16;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+    private static final int GENERATION_SHIFT = BOUND_SHIFT + 2;
+    private static final int BYTES_PER_SLOT = 16;
+
+    private final long[] slots;
+    private final int mask;
+    private volatile int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * @param megabytes memory to use; the slot count is rounded down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > 4096) {
+            throw new IllegalArgumentException("Table size must be between 1 and 4096 MB");
+        }
+        long slotCount = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_SLOT);
+        // the array holds two longs per slot and must stay under Integer.MAX_VALUE
+        slotCount = Math.min(slotCount, 1L << 29);
+        slots = new long[(int) slotCount * 2];
+        mask = (int) slotCount - 1;
+    }
+
+    /**
+     * @return the entry data stored for key, or 0 if there is none
+     */
+    public long probe(long key) {
+        int index = index(key);
+        long data = slots[index + 1];
+        long check = slots[index];
+        if (data == 0) {
+            misses.increment();
+            return 0;
+        }
+        if ((check ^ data) != key) {
+            collisions.increment();
+            return 0;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * Stores a result, replacing the slot's entry if it is for the same
+     * position, came from an older search, or was searched less deeply.
+     *
+     * @param move  best or refutation move as a {@link chess.PackedMove}, or 0
+     * @param score score to store, already adjusted for mate distance
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = index(key);
+        long old = slots[index + 1];
+        int current = generation;
+        if (old != 0 && (slots[index] ^ old) != key && generation(old) == current && depth(old) > depth) {
+            return;
+        }
+        long data = move
+                | (long) (score & 0xFFFF) << SCORE_SHIFT
+                | (long) Math.min(depth, 255) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) current << GENERATION_SHIFT;
+        slots[index] = key ^ data;
+        slots[index + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches are
+     * the first to be replaced.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    public static int move(long data) {
+        return (int) (data & ((1 << MOVE_BITS) - 1));
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+
+    private int index(long key) {
+        // the low bits pick the slot, the whole key verifies it
+        return ((int) key & mask) << 1;
+    }
+
+    /**
+     * @return number of entries the table can hold
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return probes that found an entry for the position
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return probes that found an empty slot
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return probes that found a slot holding another position (or a torn
+     * write); many of these mean the table is too small for the workload
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+}
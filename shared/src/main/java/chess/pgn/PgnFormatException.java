@@ -0,0 +1,24 @@
+package chess.pgn;
+
+import java.io.IOException;
+
+/**
+ * Indicates PGN text that could not be read, such as an unterminated tag or
+ * a move that is not legal in its position
+ */
+public class PgnFormatException extends IOException {
+
+    private final int line;
+
+    public PgnFormatException(String message, int line) {
+        super(message + " (line " + line + ")");
+        this.line = line;
+    }
+
+    /**
+     * @return the line of the input the problem was found on, counting from 1
+     */
+    public int getLine() {
+        return line;
+    }
+}
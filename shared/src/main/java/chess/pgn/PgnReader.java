@@ -0,0 +1,249 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the games of a PGN file one at a time, so archives of any size can be
+ * processed in the memory of a single game.
+ * <p>
+ * Every move of the main line is checked against the position it is played in,
+ * using the legal moves of a {@link ChessGame}. Comments, annotation glyphs
+ * ($1, !?) and variations are read past and dropped. A game that runs into the
+ * next game's tags or the end of the input without a result is returned as
+ * unfinished.
+ */
+public final class PgnReader implements Closeable {
+
+    private static final int END = -1;
+    private static final int NOTHING = -2;
+
+    private final Reader in;
+    private final char[] chars = new char[8192];
+    private int position;
+    private int limit;
+    private int pushedBack = NOTHING;
+    private int line = 1;
+
+    private final StringBuilder token = new StringBuilder(16);
+    private final int[] moveBuffer = new int[ChessGame.MAX_MOVES];
+
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the next game, or null at the end of the input
+     * @throws PgnFormatException if the game is malformed or has an illegal move
+     */
+    public PgnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<ChessMove> moves = new ArrayList<>();
+        ChessGame game = null;
+        boolean started = false;
+
+        while (true) {
+            int c = read();
+            if (c == END) {
+                return started ? new PgnGame(tags, moves, PgnGame.UNFINISHED) : null;
+            }
+            if (Character.isWhitespace(c)) {continue;}
+
+            switch (c) {
+                case '[' -> {
+                    if (game != null) {
+                        unread(c);
+                        return new PgnGame(tags, moves, PgnGame.UNFINISHED);
+                    }
+                    readTag(tags);
+                    started = true;
+                }
+                case '{' -> skipComment();
+                case ';', '%' -> skipLine();
+                case '(' -> skipVariation();
+                case ')', '}', ']' -> throw new PgnFormatException("Unexpected '" + (char) c + "'", line);
+                default -> {
+                    unread(c);
+                    readToken();
+                    started = true;
+                    String result = result();
+                    if (result != null) {
+                        return new PgnGame(tags, moves, result);
+                    }
+                    if ("$!?".indexOf(token.charAt(0)) >= 0 || !stripMoveNumber()) {continue;}
+
+                    if (game == null) {
+                        game = startingPosition(tags);
+                    }
+                    int move = San.parse(game, token, moveBuffer);
+                    if (move == PackedMove.NONE) {
+                        throw new PgnFormatException("Illegal or ambiguous move " + token, line);
+                    }
+                    moves.add(PackedMove.toChessMove(move));
+                    game.makeMove(move);
+                }
+            }
+        }
+    }
+
+    private ChessGame startingPosition(Map<String, String> tags) throws PgnFormatException {
+        String fen = tags.get("FEN");
+        try {
+            return fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+        } catch (IllegalArgumentException e) {
+            throw new PgnFormatException(e.getMessage(), line);
+        }
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        int c = skipWhitespace();
+        StringBuilder name = new StringBuilder();
+        while (c != END && c != '"' && c != ']' && !Character.isWhitespace(c)) {
+            name.append((char) c);
+            c = read();
+        }
+        if (Character.isWhitespace(c)) {
+            c = skipWhitespace();
+        }
+        if (name.isEmpty() || c != '"') {
+            throw new PgnFormatException("Malformed tag", line);
+        }
+
+        StringBuilder value = new StringBuilder();
+        for (c = read(); c != '"'; c = read()) {
+            if (c == '\\') {
+                c = read();
+            }
+            if (c == END || c == '\n') {
+                throw new PgnFormatException("Unterminated tag value", line);
+            }
+            value.append((char) c);
+        }
+        if (skipWhitespace() != ']') {
+            throw new PgnFormatException("Malformed tag", line);
+        }
+        tags.put(name.toString(), value.toString());
+    }
+
+    // reads up to whitespace or the start of a comment, variation or tag
+    private void readToken() throws IOException {
+        token.setLength(0);
+        for (int c = read(); c != END; c = read()) {
+            if (Character.isWhitespace(c)) {return;}
+            if ("{}()[];".indexOf(c) >= 0) {
+                unread(c);
+                return;
+            }
+            token.append((char) c);
+        }
+    }
+
+    private String result() {
+        if (equalsToken(PgnGame.WHITE_WINS)) {return PgnGame.WHITE_WINS;}
+        if (equalsToken(PgnGame.BLACK_WINS)) {return PgnGame.BLACK_WINS;}
+        if (equalsToken(PgnGame.DRAW)) {return PgnGame.DRAW;}
+        if (equalsToken(PgnGame.UNFINISHED)) {return PgnGame.UNFINISHED;}
+        return null;
+    }
+
+    private boolean equalsToken(String text) {
+        return token.length() == text.length() && token.indexOf(text) == 0;
+    }
+
+    /**
+     * Removes a move number such as 12. or 12... from the front of the token.
+     *
+     * @return true if a move is left
+     */
+    private boolean stripMoveNumber() {
+        int digits = 0;
+        while (digits < token.length() && Character.isDigit(token.charAt(digits))) {
+            digits++;
+        }
+        int dots = digits;
+        while (dots < token.length() && token.charAt(dots) == '.') {
+            dots++;
+        }
+        if (dots > digits || digits == token.length()) {
+            token.delete(0, dots);
+        }
+        return !token.isEmpty();
+    }
+
+    private void skipComment() throws IOException {
+        for (int c = read(); c != '}'; c = read()) {
+            if (c == END) {
+                throw new PgnFormatException("Unterminated comment", line);
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        for (int c = read(); c != '\n' && c != END; c = read()) {
+            // the rest of the line is ignored
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            switch (c) {
+                case END -> throw new PgnFormatException("Unterminated variation", line);
+                case '(' -> depth++;
+                case ')' -> depth--;
+                case '{' -> skipComment();
+                case ';' -> skipLine();
+                default -> { }
+            }
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c != END && Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NOTHING) {
+            int c = pushedBack;
+            pushedBack = NOTHING;
+            return c;
+        }
+        if (position == limit) {
+            limit = in.read(chars, 0, chars.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return END;
+            }
+        }
+        char c = chars[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    // never called with a newline, so the line count stays right
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
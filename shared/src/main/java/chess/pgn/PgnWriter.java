@@ -0,0 +1,117 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PackedMove;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writes games in PGN export format, one at a time: the seven standard tags
+ * first (with ? for unknown values), then any other tags, then the moves in
+ * SAN with move numbers, wrapped to lines of at most 80 characters.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final int LINE_LENGTH = 80;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH);
+    private final StringBuilder word = new StringBuilder(16);
+    private final int[] moveBuffer = new int[ChessGame.MAX_MOVES];
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @throws IllegalArgumentException if one of the game's moves is not legal
+     *                                  in the position it is played in
+     */
+    public void write(PgnGame game) throws IOException {
+        Map<String, String> tags = game.tags();
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? game.result() : tags.get(name);
+            writeTag(name, value != null ? value : name.equals("Date") ? "????.??.??" : "?");
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRosterTag(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        ChessGame position = game.startingPosition();
+        boolean first = true;
+        for (ChessMove move : game.moves()) {
+            int packed = position.findLegalMove(move);
+            if (packed == PackedMove.NONE) {
+                throw new IllegalArgumentException("Illegal move " + move + " in game");
+            }
+            word.setLength(0);
+            if (position.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                word.append(position.getFullmoveNumber()).append(". ");
+            } else if (first) {
+                word.append(position.getFullmoveNumber()).append("... ");
+            }
+            San.append(word, position, packed, moveBuffer);
+            position.makeMove(packed);
+            addWord(word);
+            first = false;
+        }
+        word.setLength(0);
+        addWord(word.append(game.result()));
+        out.append(line).write("\n\n");
+        line.setLength(0);
+    }
+
+    private static boolean isRosterTag(String name) {
+        for (String rosterTag : SEVEN_TAG_ROSTER) {
+            if (rosterTag.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    // a move number stays on the same line as its move
+    private void addWord(CharSequence text) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + text.length() > LINE_LENGTH) {
+            out.append(line).write('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(text);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
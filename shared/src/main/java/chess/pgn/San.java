@@ -0,0 +1,236 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.PackedMove;
+
+/**
+ * Standard algebraic notation (SAN), the move format of PGN: the piece
+ * letter, as much of the origin square as it takes to tell the move apart
+ * from others, an x for captures, the target square, the promotion and a
+ * check or mate mark, as in Nbxd7+ or e8=Q#.
+ * <p>
+ * Both directions work from the legal moves of a {@link ChessGame}, so the
+ * notation is checked against the position and never needs a board of its own.
+ */
+public final class San {
+
+    private San() {
+    }
+
+    /**
+     * @param move a legal move in the game's current position
+     * @return the move in SAN; the game is left as it was
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        int packed = game.findLegalMove(move);
+        if (packed == PackedMove.NONE) {
+            throw new IllegalArgumentException("Illegal move: " + move);
+        }
+        StringBuilder out = new StringBuilder(8);
+        append(out, game, packed, new int[ChessGame.MAX_MOVES]);
+        return out.toString();
+    }
+
+    /**
+     * @return the legal move the SAN describes, or null if it describes no
+     * legal move or more than one
+     */
+    public static ChessMove parse(ChessGame game, String san) {
+        int move = parse(game, san, new int[ChessGame.MAX_MOVES]);
+        return move == PackedMove.NONE ? null : PackedMove.toChessMove(move);
+    }
+
+    /**
+     * Appends the SAN of a legal {@link PackedMove}.
+     *
+     * @param buffer scratch space of {@link ChessGame#MAX_MOVES} entries
+     */
+    static void append(StringBuilder out, ChessGame game, int move, int[] buffer) {
+        ChessBoard board = game.getBoard();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+        boolean capture = board.getPiece(to) != null || PackedMove.isEnPassant(move);
+
+        if (PackedMove.isCastle(move)) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == ChessPiece.PieceType.PAWN) {
+            if (capture) {
+                out.append(file(from)).append('x');
+            }
+            appendSquare(out, to);
+            ChessPiece.PieceType promotion = PackedMove.promotion(move);
+            if (promotion != null) {
+                out.append('=').append(letter(promotion));
+            }
+        } else {
+            out.append(letter(type));
+            appendOrigin(out, game, move, type, buffer);
+            if (capture) {
+                out.append('x');
+            }
+            appendSquare(out, to);
+        }
+
+        game.makeMove(move);
+        if (game.isInCheck(game.getTeamTurn())) {
+            out.append(game.generateLegalMoves(buffer) == 0 ? '#' : '+');
+        }
+        game.unmakeMove();
+    }
+
+    // the file, rank or both of the origin, when another piece of the same kind can reach the target
+    private static void appendOrigin(StringBuilder out, ChessGame game, int move, ChessPiece.PieceType type,
+                                     int[] buffer) {
+        ChessBoard board = game.getBoard();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        int count = game.generateLegalMoves(buffer);
+        for (int i = 0; i < count; i++) {
+            int other = PackedMove.from(buffer[i]);
+            if (other != from && PackedMove.to(buffer[i]) == to
+                    && board.getPiece(other).getPieceType() == type) {
+                ambiguous = true;
+                sameFile |= (other & 7) == (from & 7);
+                sameRank |= (other >>> 3) == (from >>> 3);
+            }
+        }
+        if (!ambiguous) {return;}
+        if (!sameFile) {
+            out.append(file(from));
+        } else if (!sameRank) {
+            out.append(rank(from));
+        } else {
+            appendSquare(out, from);
+        }
+    }
+
+    /**
+     * Finds the legal {@link PackedMove} a SAN token describes. Check marks
+     * and annotations such as ! and ? are ignored, and so is whether a capture
+     * is marked with an x.
+     *
+     * @param buffer scratch space of {@link ChessGame#MAX_MOVES} entries
+     * @return the move, or {@link PackedMove#NONE} if there is no single match
+     */
+    static int parse(ChessGame game, CharSequence san, int[] buffer) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        int count = game.generateLegalMoves(buffer);
+        if (isCastle(san, end, 3) || isCastle(san, end, 5)) {
+            return findCastle(buffer, count, end == 3);
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (end > 0 && pieceType(san.charAt(end - 1)) != null && end >= 3) {
+            promotion = pieceType(san.charAt(end - 1));
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end < 2) {return PackedMove.NONE;}
+        int to = square(san.charAt(end - 2), san.charAt(end - 1));
+        if (to < 0) {return PackedMove.NONE;}
+
+        int start = 0;
+        ChessPiece.PieceType type = pieceType(san.charAt(0));
+        if (type == null) {
+            type = ChessPiece.PieceType.PAWN;
+        } else {
+            start = 1;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return PackedMove.NONE;
+            }
+        }
+
+        ChessBoard board = game.getBoard();
+        int found = PackedMove.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) != to || PackedMove.isCastle(move)
+                    || PackedMove.promotion(move) != promotion
+                    || board.getPiece(from).getPieceType() != type
+                    || (fromFile >= 0 && (from & 7) != fromFile)
+                    || (fromRank >= 0 && (from >>> 3) != fromRank)) {
+                continue;
+            }
+            if (found != PackedMove.NONE) {
+                return PackedMove.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    // O-O or O-O-O, also written with zeros
+    private static boolean isCastle(CharSequence san, int end, int length) {
+        if (end != length) {return false;}
+        for (int i = 0; i < length; i++) {
+            char c = san.charAt(i);
+            if ((i & 1) == 0 ? c != 'O' && c != '0' : c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int findCastle(int[] moves, int count, boolean kingside) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (PackedMove.isCastle(move) && (PackedMove.to(move) > PackedMove.from(move)) == kingside) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+
+    private static ChessPiece.PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+
+    private static char letter(ChessPiece.PieceType type) {
+        return type == ChessPiece.PieceType.KNIGHT ? 'N' : type.name().charAt(0);
+    }
+
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    private static char file(int square) {
+        return (char) ('a' + (square & 7));
+    }
+
+    private static char rank(int square) {
+        return (char) ('1' + (square >>> 3));
+    }
+
+    private static void appendSquare(StringBuilder out, int square) {
+        out.append(file(square)).append(rank(square));
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+/**
+ * A page of the game list. Games come in game ID order, and the next page
+ * starts after the last ID of this one, so a page costs the same however
+ * many games came before it.
+ *
+ * @param status     only games in this state, or null for all
+ * @param player     only games this user plays in, or null for all
+ * @param namePrefix only games whose name starts with this, ignoring case, or null for all
+ * @param after      the last game ID of the previous page, or null for the first page
+ * @param newestFirst whether the highest game IDs come first
+ * @param limit      most games on the page
+ */
+public record GameQuery(Status status, String player, String namePrefix, Integer after, boolean newestFirst,
+                        int limit) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 100;
+
+    public enum Status {
+        /** not finished, with a seat free */
+        OPEN,
+        /** not finished, with both seats taken */
+        IN_PROGRESS,
+        FINISHED
+    }
+
+    public GameQuery {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+    }
+
+    /**
+     * @return the first page of every game, oldest first
+     */
+    public static GameQuery firstPage() {
+        return new GameQuery(null, null, null, null, false, DEFAULT_LIMIT);
+    }
+
+    public GameQuery after(Integer gameID) {
+        return new GameQuery(status, player, namePrefix, gameID, newestFirst, limit);
+    }
+
+    public GameQuery withLimit(int limit) {
+        return new GameQuery(status, player, namePrefix, after, newestFirst, limit);
+    }
+
+    /**
+     * @return whether the game passes the filters, leaving the cursor aside
+     */
+    public boolean matches(GameSummary game) {
+        if (status != null && status != statusOf(game)) {
+            return false;
+        }
+        if (player != null && !player.equals(game.whiteUsername()) && !player.equals(game.blackUsername())) {
+            return false;
+        }
+        return namePrefix == null || game.gameName() != null
+                && game.gameName().regionMatches(true, 0, namePrefix, 0, namePrefix.length());
+    }
+
+    public static Status statusOf(GameSummary game) {
+        if (game.finished()) {
+            return Status.FINISHED;
+        }
+        return game.whiteUsername() == null || game.blackUsername() == null ? Status.OPEN : Status.IN_PROGRESS;
+    }
+}
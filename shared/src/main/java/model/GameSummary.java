@@ -0,0 +1,14 @@
+package model;
+
+/**
+ * What the lobby shows of a game: its players, name and whether it is over,
+ * without the game state, so listing games never has to load or send a
+ * {@link chess.ChessGame}.
+ */
+public record GameSummary(
+        int gameID,
+        String whiteUsername,
+        String blackUsername,
+        String gameName,
+        boolean finished
+){}
@@ -1,3 +1,9 @@
 package requests;
 
-public record ListGamesRequest(String authToken){}
+import model.GameQuery;
+
+public record ListGamesRequest(String authToken, GameQuery query){
+    public ListGamesRequest(String authToken) {
+        this(authToken, GameQuery.firstPage());
+    }
+}
@@ -1,7 +1,10 @@
 package results;
 
-import model.GameData;
+import model.GameSummary;
 
 import java.util.Collection;
 
-public record ListGamesResult(Collection<GameData> games){}
+/**
+ * @param nextCursor the game ID to list the next page after, or null on the last page
+ */
+public record ListGamesResult(Collection<GameSummary> games, Integer nextCursor){}
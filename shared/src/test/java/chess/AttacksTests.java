@@ -0,0 +1,97 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static chess.TestMoves.square;
+import static chess.TestMoves.squares;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttacksTests {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    // walks each ray one square at a time, as a reference for the lookup tables
+    private static long walk(int square, int[][] directions, long occupancy) {
+        long attacks = 0;
+        for (int[] dir : directions) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+                int target = Bitboards.square(row, col);
+                attacks |= Bitboards.bit(target);
+                if (Bitboards.contains(occupancy, target)) {break;}
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    @Test
+    public void rookStopsOnBlockers() {
+        long occupancy = squares("d4", "d6", "b4", "h8");
+        assertEquals(squares("d5", "d6", "d3", "d2", "d1", "c4", "b4", "e4", "f4", "g4", "h4"),
+                Attacks.rook(square("d4"), occupancy));
+    }
+
+    @Test
+    public void bishopStopsOnBlockers() {
+        assertEquals(squares("b2", "a3", "d2", "e3"), Attacks.bishop(square("c1"), squares("c1", "e3", "f4")));
+        assertEquals(squares("b2", "a3", "d2", "e3", "f4", "g5", "h6"), Attacks.bishop(square("c1"), 0));
+    }
+
+    @Test
+    public void queenCombinesRookAndBishop() {
+        long occupancy = squares("e5", "c3", "g4");
+        int queen = square("e4");
+        assertEquals(Attacks.rook(queen, occupancy) | Attacks.bishop(queen, occupancy), Attacks.queen(queen, occupancy));
+        assertEquals(Attacks.queen(queen, occupancy), Attacks.piece(ChessPiece.PieceType.QUEEN, queen, occupancy));
+    }
+
+    @Test
+    public void slidersMatchRayWalkForRandomBlockers() {
+        Random random = new Random(42);
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            for (int i = 0; i < 200; i++) {
+                // sparse boards like real positions, plus some crowded ones
+                long occupancy = random.nextLong() & random.nextLong() & (i % 2 == 0 ? random.nextLong() : -1L);
+                assertEquals(walk(square, ROOK_DIRECTIONS, occupancy), Attacks.rook(square, occupancy),
+                        "rook on " + square);
+                assertEquals(walk(square, BISHOP_DIRECTIONS, occupancy), Attacks.bishop(square, occupancy),
+                        "bishop on " + square);
+            }
+        }
+    }
+
+    @Test
+    public void stepAttacksStayOnTheBoard() {
+        assertEquals(squares("b3", "c2"), Attacks.knight(square("a1")));
+        assertEquals(squares("g8", "g7", "h7"), Attacks.king(square("h8")));
+        assertEquals(squares("d5", "f5"), Attacks.pawn(ChessGame.TeamColor.WHITE, square("e4")));
+        assertEquals(squares("b4"), Attacks.pawn(ChessGame.TeamColor.BLACK, square("a5")));
+        assertThrows(IllegalArgumentException.class, () -> Attacks.piece(ChessPiece.PieceType.PAWN, 0, 0));
+    }
+
+    @Test
+    public void betweenHoldsOnlyTheSquaresInBetween() {
+        assertEquals(squares("b2", "c3", "d4", "e5", "f6", "g7"), Attacks.between(square("a1"), square("h8")));
+        assertEquals(squares("e2", "e3"), Attacks.between(square("e4"), square("e1")));
+        assertEquals(squares("c4"), Attacks.between(square("b4"), square("d4")));
+        assertEquals(0, Attacks.between(square("e4"), square("e5")));
+        assertEquals(0, Attacks.between(square("a1"), square("b3")));
+        assertEquals(0, Attacks.between(square("e4"), square("e4")));
+    }
+
+    @Test
+    public void lineRunsEdgeToEdge() {
+        long diagonal = squares("a1", "b2", "c3", "d4", "e5", "f6", "g7", "h8");
+        assertEquals(diagonal, Attacks.line(square("b2"), square("d4")));
+        assertEquals(diagonal, Attacks.line(square("h8"), square("c3")));
+        assertEquals(squares("e1", "e2", "e3", "e4", "e5", "e6", "e7", "e8"), Attacks.line(square("e4"), square("e7")));
+        assertEquals(squares("a7", "b8"), Attacks.line(square("a7"), square("b8")));
+        assertEquals(0, Attacks.line(square("a1"), square("b3")));
+    }
+}
@@ -0,0 +1,36 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static chess.TestMoves.square;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitboardsTests {
+
+    @Test
+    public void squaresCountFromA1ToH8() {
+        assertEquals(0, Bitboards.square(1, 1));
+        assertEquals(7, Bitboards.square(1, 8));
+        assertEquals(8, Bitboards.square(2, 1));
+        assertEquals(63, Bitboards.square(8, 8));
+        assertEquals(28, square("e4"));
+        assertEquals(28, Bitboards.square(ChessPosition.of(4, 5)));
+    }
+
+    @Test
+    public void rowAndColumnInvertSquare() {
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            assertEquals(square, Bitboards.square(Bitboards.row(square), Bitboards.column(square)));
+            assertSame(ChessPosition.of(Bitboards.row(square), Bitboards.column(square)), Bitboards.position(square));
+        }
+    }
+
+    @Test
+    public void bitsMatchContains() {
+        long set = Bitboards.bit(0) | Bitboards.bit(63);
+        assertEquals(Long.MIN_VALUE | 1L, set);
+        assertTrue(Bitboards.contains(set, 0));
+        assertTrue(Bitboards.contains(set, 63));
+        assertFalse(Bitboards.contains(set, 1));
+    }
+}
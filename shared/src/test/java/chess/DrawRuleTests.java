@@ -0,0 +1,100 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DrawRuleTests {
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        move(game, 1, 7, 3, 6);
+        move(game, 8, 7, 6, 6);
+        move(game, 3, 6, 1, 7);
+        move(game, 6, 6, 8, 7);
+    }
+
+    @Test
+    public void threefoldRepetitionDraws() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        assertFalse(game.isFinished());
+
+        shuffleKnights(game);
+        assertTrue(game.isFinished());
+        assertNull(game.getWinner());
+        assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, game.getDrawReason());
+    }
+
+    @Test
+    public void restoredKeysCountRepetitionsFromBeforeALoad() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        long[] keys = game.getRepetitionKeys();
+        assertEquals(5, keys.length);
+
+        Gson gson = new Gson();
+        ChessGame forgetful = gson.fromJson(gson.toJson(game), ChessGame.class);
+        shuffleKnights(forgetful);
+        assertFalse(forgetful.isFinished());
+
+        ChessGame loaded = gson.fromJson(gson.toJson(game), ChessGame.class);
+        loaded.restoreRepetitionKeys(keys);
+        assertTrue(loaded.isRepetition());
+        shuffleKnights(loaded);
+        assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, loaded.getDrawReason());
+
+        assertThrows(IllegalStateException.class, () -> loaded.restoreRepetitionKeys(keys));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ChessGame().restoreRepetitionKeys(new long[]{keys[1]}));
+    }
+
+    @Test
+    public void pawnMoveResetsRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        move(game, 2, 1, 3, 1);
+        move(game, 7, 1, 6, 1);
+        shuffleKnights(game);
+
+        assertFalse(game.isFinished());
+        assertEquals(4, game.getHalfmoveClock());
+    }
+
+    @Test
+    public void fiftyMoveRuleDraws() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setBoard(new ChessBoard());
+        game.getBoard().addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        game.getBoard().addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        game.getBoard().addPiece(new ChessPosition(2, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+
+        // snake the rook through rows 2-7 and back so no position comes up three times,
+        // while the black king steps between h8 and g8
+        List<int[]> path = new ArrayList<>();
+        for (int row = 2; row <= 7; row++) {
+            for (int i = 1; i <= 6; i++) {
+                path.add(new int[]{row, row % 2 == 0 ? i : 7 - i});
+            }
+        }
+        for (int i = path.size() - 2; i >= 0; i--) {
+            path.add(path.get(i));
+        }
+
+        for (int ply = 0; ply < ChessGame.FIFTY_MOVE_LIMIT / 2; ply++) {
+            assertFalse(game.isFinished(), "finished after " + ply + " moves");
+            int[] from = path.get(ply);
+            int[] to = path.get(ply + 1);
+            move(game, from[0], from[1], to[0], to[1]);
+            int kingCol = ply % 2 == 0 ? 8 : 7;
+            move(game, 8, kingCol, 8, 15 - kingCol);
+        }
+
+        assertTrue(game.isFinished());
+        assertEquals(ChessGame.DrawReason.FIFTY_MOVE_RULE, game.getDrawReason());
+    }
+}
@@ -0,0 +1,81 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EncodingTests {
+
+    private static ChessGame roundTrip(ChessGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(ChessGame.ENCODED_BYTES);
+        game.encode(buffer);
+        assertFalse(buffer.hasRemaining());
+        return ChessGame.decode(buffer.flip());
+    }
+
+    @Test
+    public void roundTripKeepsThePosition() {
+        String[] records = {
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/8/3p4/KPp4r/1R3p1k/8/4P1P1/8 w - c6 0 2",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "4k3/8/8/8/8/8/8/4K2R b K - 37 90",
+        };
+        for (String fen : records) {
+            ChessGame game = ChessGame.fromFen(fen);
+            ChessGame decoded = roundTrip(game);
+            assertEquals(fen, decoded.toFen());
+            assertEquals(game.getZobristKey(), decoded.getZobristKey());
+            assertEquals(game.evaluate(), decoded.evaluate());
+        }
+    }
+
+    @Test
+    public void keepsDrawnResult() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            move(game, 1, 7, 3, 6);
+            move(game, 8, 7, 6, 6);
+            move(game, 3, 6, 1, 7);
+            move(game, 6, 6, 8, 7);
+        }
+        assertEquals(ChessGame.GameStatus.DRAW, game.getStatus());
+
+        ChessGame decoded = roundTrip(game);
+        assertTrue(decoded.isFinished());
+        assertEquals(ChessGame.DrawReason.THREEFOLD_REPETITION, decoded.getDrawReason());
+        assertEquals(game.getHalfmoveClock(), decoded.getHalfmoveClock());
+        assertEquals(game.getFullmoveNumber(), decoded.getFullmoveNumber());
+    }
+
+    @Test
+    public void packsGamesBackToBack() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        ChessGame second = new ChessGame();
+        move(second, 2, 5, 4, 5);
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 * ChessGame.ENCODED_BYTES);
+        first.encode(buffer);
+        second.encode(buffer);
+        buffer.flip();
+        assertEquals(first.toFen(), ChessGame.decode(buffer).toFen());
+        assertEquals(second.toFen(), ChessGame.decode(buffer).toFen());
+
+        int json = new Gson().toJson(second).length();
+        assertTrue(json > 20 * ChessGame.ENCODED_BYTES, "JSON takes " + json + " bytes");
+    }
+
+    @Test
+    public void rejectsBadPieceCodes() {
+        ByteBuffer buffer = ByteBuffer.allocate(ChessGame.ENCODED_BYTES);
+        new ChessGame().encode(buffer);
+        buffer.put(20, (byte) 0xF0);
+        buffer.flip();
+        assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(buffer));
+    }
+}
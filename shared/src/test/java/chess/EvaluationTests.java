@@ -0,0 +1,50 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationTests {
+
+    @Test
+    public void startPositionIsBalanced() {
+        ChessGame game = new ChessGame();
+        assertEquals(0, game.evaluate());
+        assertEquals(PieceSquareTables.MAX_PHASE, game.getBoard().getPhase());
+    }
+
+    @Test
+    public void incrementalScoresMatchRebuiltBoard() {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        int[] moves = new int[ChessGame.MAX_MOVES];
+
+        for (int ply = 0; ply < 120; ply++) {
+            int count = game.generateLegalMoves(moves);
+            if (count == 0) {break;}
+            game.makeMove(moves[(ply * 13) % count]);
+
+            // a deserialized board has no transient state and rebuilds it from scratch
+            ChessBoard rebuilt = gson.fromJson(gson.toJson(game.getBoard()), ChessBoard.class);
+            assertEquals(rebuilt.getMidgameScore(), game.getBoard().getMidgameScore());
+            assertEquals(rebuilt.getEndgameScore(), game.getBoard().getEndgameScore());
+            assertEquals(rebuilt.getPhase(), game.getBoard().getPhase());
+        }
+        while (game.getUndoDepth() > 0) {
+            game.unmakeMove();
+        }
+        assertEquals(0, game.evaluate());
+    }
+
+    @Test
+    public void extraMaterialCountsForTheSideToMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.getBoard().addPiece(new ChessPosition(8, 4), null);
+        int score = game.evaluate();
+        assertTrue(score > 800, "white is a queen up: " + score);
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertTrue(game.evaluate() < -800, "black to move is a queen down: " + game.evaluate());
+    }
+}
@@ -0,0 +1,36 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlyweightTests {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void jsonFormatIsUnchanged() {
+        assertEquals("{\"row\":2,\"col\":5}", gson.toJson(ChessPosition.of(2, 5)));
+        assertEquals("{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"}",
+                gson.toJson(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT)));
+        assertEquals(ChessPosition.of(8, 1), gson.fromJson("{\"col\":1,\"row\":8}", ChessPosition.class));
+    }
+
+    @Test
+    public void loadedGameUsesSharedInstances() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        ChessGame loaded = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(game, loaded);
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                loaded.getBoard().getPiece(ChessPosition.of(4, 5)));
+        assertSame(ChessPosition.of(3, 5), gson.fromJson(gson.toJson(new ChessPosition(3, 5)), ChessPosition.class));
+
+        ChessMove move = gson.fromJson(gson.toJson(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5),
+                null)), ChessMove.class);
+        assertSame(ChessPosition.of(7, 5), move.getStartPosition());
+        loaded.makeMove(move);
+    }
+}
@@ -0,0 +1,59 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusTests {
+
+    @Test
+    public void foolsMate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+
+        move(game, 2, 6, 3, 6);
+        move(game, 7, 5, 5, 5);
+        move(game, 2, 7, 4, 7);
+        move(game, 8, 4, 4, 8);
+
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+        assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        assertTrue(game.isFinished());
+        assertEquals("black", game.getWinner());
+        assertNull(game.getDrawReason());
+
+        game.unmakeMove();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+    }
+
+    @Test
+    public void stalemateEndsTheGameWithoutAWinner() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("7k/8/6K1/8/8/8/8/5Q2 w - - 0 1");
+        move(game, 1, 6, 7, 6);
+
+        assertEquals(ChessGame.GameStatus.STALEMATE, game.getStatus());
+        assertTrue(game.isFinished());
+        assertNull(game.getWinner());
+        assertNull(game.getDrawReason());
+    }
+
+    @Test
+    public void statusFollowsBoardEdits() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(6, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals(ChessGame.GameStatus.CHECK, game.getStatus());
+
+        // moving the queen off the long diagonal leaves black without a move
+        board.addPiece(new ChessPosition(1, 1), null);
+        board.addPiece(new ChessPosition(7, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        assertEquals(ChessGame.GameStatus.STALEMATE, game.getStatus());
+    }
+}
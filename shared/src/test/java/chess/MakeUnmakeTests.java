@@ -0,0 +1,131 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MakeUnmakeTests {
+
+    private static void assertRestored(ChessGame game, long key, int clock, ChessBoard board) {
+        assertEquals(key, game.getZobristKey());
+        assertEquals(clock, game.getHalfmoveClock());
+        assertEquals(board, game.getBoard());
+    }
+
+    private static ChessBoard copy(ChessBoard board) {
+        ChessBoard copy = new ChessBoard();
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            copy.addPiece(square, board.getPiece(square));
+        }
+        return copy;
+    }
+
+    @Test
+    public void everyMoveUnmakesAlongAGame() {
+        ChessGame game = new ChessGame();
+        int[] moves = new int[ChessGame.MAX_MOVES];
+
+        for (int ply = 0; ply < 80; ply++) {
+            int count = game.generateLegalMoves(moves);
+            if (count == 0) {break;}
+            long key = game.getZobristKey();
+            int clock = game.getHalfmoveClock();
+            ChessBoard before = copy(game.getBoard());
+
+            for (int i = 0; i < count; i++) {
+                game.makeMove(moves[i]);
+                game.unmakeMove();
+                assertRestored(game, key, clock, before);
+            }
+            game.makeMove(moves[(ply * 7) % count]);
+        }
+
+        while (game.getUndoDepth() > 0) {
+            game.unmakeMove();
+        }
+        assertEquals(new ChessGame().getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    public void castlingAndPromotionRestoreRights() throws InvalidMoveException {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(7, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        long key = game.getZobristKey();
+        ChessBoard before = copy(board);
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null));
+        assertEquals(ChessPiece.PieceType.ROOK, game.getBoard().getPiece(new ChessPosition(1, 6)).getPieceType());
+        game.unmakeMove();
+        assertRestored(game, key, 0, before);
+
+        // capturing the a8 rook removes black's queenside right until the move is taken back
+        game.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+        game.unmakeMove();
+        assertRestored(game, key, 0, before);
+        assertEquals(ChessPiece.PieceType.PAWN, game.getBoard().getPiece(new ChessPosition(7, 2)).getPieceType());
+
+        assertThrows(IllegalStateException.class, game::unmakeMove);
+    }
+
+    @Test
+    public void playedMovesFollowMakeAndUnmake() {
+        ChessGame game = new ChessGame();
+        int[] moves = new int[ChessGame.MAX_MOVES];
+        int[] played = new int[40];
+        for (int ply = 0; ply < played.length; ply++) {
+            int count = game.generateLegalMoves(moves);
+            if (count == 0) {break;}
+            played[ply] = moves[(ply * 5) % count];
+            game.makeMove(played[ply]);
+        }
+        assertEquals(40, game.getPly());
+
+        ChessGame copy = new ChessGame(game);
+        game.unmakeMove();
+        assertEquals(39, game.getPly());
+        assertEquals(40, copy.getPly());
+        for (int ply = 0; ply < 40; ply++) {
+            assertEquals(played[ply], copy.getPlayedMove(ply));
+        }
+        assertEquals(PackedMove.toChessMove(played[38]), game.getMoveHistory().get(38));
+        assertThrows(IndexOutOfBoundsException.class, () -> game.getPlayedMove(39));
+
+        ChessGame replayed = new ChessGame();
+        for (int ply = 0; ply < copy.getPly(); ply++) {
+            replayed.makeMove(copy.getPlayedMove(ply));
+        }
+        assertEquals(copy.getZobristKey(), replayed.getZobristKey());
+    }
+
+    @Test
+    public void loadedGameKeepsItsPlyButNotItsHistory() {
+        ChessGame game = new ChessGame();
+        int[] moves = new int[ChessGame.MAX_MOVES];
+        for (int ply = 0; ply < 30; ply++) {
+            game.generateLegalMoves(moves);
+            game.makeMove(moves[0]);
+        }
+        Gson gson = new Gson();
+        String json = gson.toJson(game);
+        assertFalse(json.contains("positionHistory"), json);
+        assertFalse(json.contains("playedMoves"), json);
+
+        ChessGame loaded = gson.fromJson(json, ChessGame.class);
+        assertEquals(30, loaded.getPly());
+        assertEquals(30, loaded.getFirstPlayedPly());
+        assertThrows(IndexOutOfBoundsException.class, () -> loaded.getPlayedMove(29));
+
+        loaded.generateLegalMoves(moves);
+        loaded.makeMove(moves[0]);
+        assertEquals(moves[0], loaded.getPlayedMove(30));
+        assertEquals(1, loaded.getMoveHistory().size());
+        assertFalse(loaded.isRepetition());
+    }
+}
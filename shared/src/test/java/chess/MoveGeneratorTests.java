@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveGeneratorTests {
+
+    private static Set<String> legalMoves(String fen) {
+        ChessGame game = ChessGame.fromFen(fen);
+        int[] moves = new int[ChessGame.MAX_MOVES];
+        int count = game.generateLegalMoves(moves);
+        Set<String> names = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            names.add(PackedMove.toString(moves[i]));
+        }
+        return names;
+    }
+
+    private static Set<String> movesFrom(Set<String> moves, String square) {
+        Set<String> from = new TreeSet<>();
+        for (String move : moves) {
+            if (move.startsWith(square)) {
+                from.add(move);
+            }
+        }
+        return from;
+    }
+
+    @Test
+    public void pinnedPiecesMoveOnlyAlongThePin() {
+        Set<String> moves = legalMoves("4k3/8/8/8/4r3/8/4R3/4K3 w - - 0 1");
+        assertEquals(Set.of("e2e3", "e2e4"), movesFrom(moves, "e2"));
+
+        moves = legalMoves("4k3/8/8/8/1b6/8/3N4/4K3 w - - 0 1");
+        assertEquals(Set.of(), movesFrom(moves, "d2"));
+
+        // a bishop pinned on its own diagonal can slide along it and take the pinner
+        moves = legalMoves("4k3/8/8/8/1b6/8/3B4/4K3 w - - 0 1");
+        assertEquals(Set.of("d2c3", "d2b4"), movesFrom(moves, "d2"));
+    }
+
+    @Test
+    public void doubleCheckLeavesOnlyKingMoves() {
+        // the rook and the knight both check; the bishop could take the knight in a single check
+        Set<String> moves = legalMoves("4r1k1/8/8/8/8/5n2/8/4K2B w - - 0 1");
+        assertEquals(Set.of("e1d1", "e1f1", "e1f2"), moves);
+
+        moves = legalMoves("6k1/8/8/8/8/5n2/8/4K2B w - - 0 1");
+        assertTrue(moves.contains("h1f3"));
+    }
+
+    @Test
+    public void singleCheckAllowsBlocksAndCaptures() {
+        Set<String> moves = legalMoves("4r1k1/8/8/8/8/8/3B4/R3K3 w - - 0 1");
+        assertEquals(Set.of("d2e3"), movesFrom(moves, "d2"));
+        assertEquals(Set.of(), movesFrom(moves, "a1"));
+        assertFalse(moves.contains("e1c1"));
+    }
+
+    @Test
+    public void enPassantThatUncoversCheckIsIllegal() {
+        assertTrue(legalMoves("8/8/8/KPp5/8/8/8/4k3 w - c6 0 1").contains("b5c6"));
+
+        // taking empties b5 and c5 at once, opening the rank between the rook and the king
+        Set<String> moves = legalMoves("8/8/8/KPp4r/8/8/8/4k3 w - c6 0 1");
+        assertFalse(moves.contains("b5c6"));
+        assertTrue(moves.contains("b5b6"));
+    }
+
+    @Test
+    public void enPassantCanCaptureTheCheckingPawn() {
+        Set<String> moves = legalMoves("8/8/8/2pP4/1K6/8/8/4k3 w - c6 0 1");
+        assertTrue(moves.contains("d5c6"));
+        assertFalse(moves.contains("d5d6"));
+    }
+
+    @Test
+    public void castlingNeedsSafeSquaresForTheKing() {
+        Set<String> moves = legalMoves("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        assertTrue(moves.containsAll(Set.of("e1g1", "e1c1")));
+
+        // f1 is crossed and d1 is crossed, so neither side may castle
+        moves = legalMoves("3rkr2/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        assertFalse(moves.contains("e1g1"));
+        assertFalse(moves.contains("e1c1"));
+
+        // only the king's path matters, so an attacked b1 does not stop queenside castling
+        moves = legalMoves("1r2k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        assertTrue(moves.contains("e1c1"));
+
+        // nor may a king in check castle
+        moves = legalMoves("4r1k1/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        assertFalse(moves.contains("e1g1"));
+        assertFalse(moves.contains("e1c1"));
+    }
+}
@@ -0,0 +1,87 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Node counts from the standard perft positions at depths that run quickly.
+ */
+public class PerftTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String EN_PASSANT_PINS = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String PROMOTIONS = "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1";
+
+    @Test
+    public void startPosition() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, Perft.count(game, 1));
+        assertEquals(400, Perft.count(game, 2));
+        assertEquals(8902, Perft.count(game, 3));
+        assertEquals(197281, Perft.count(game, 4));
+    }
+
+    @Test
+    public void kiwipete() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        assertEquals(48, Perft.count(game, 1));
+        assertEquals(2039, Perft.count(game, 2));
+        assertEquals(97862, Perft.count(game, 3));
+    }
+
+    @Test
+    public void enPassantPins() {
+        ChessGame game = ChessGame.fromFen(EN_PASSANT_PINS);
+        assertEquals(14, Perft.count(game, 1));
+        assertEquals(191, Perft.count(game, 2));
+        assertEquals(2812, Perft.count(game, 3));
+        assertEquals(43238, Perft.count(game, 4));
+    }
+
+    @Test
+    public void promotions() {
+        ChessGame game = ChessGame.fromFen(PROMOTIONS);
+        assertEquals(24, Perft.count(game, 1));
+        assertEquals(496, Perft.count(game, 2));
+        assertEquals(9483, Perft.count(game, 3));
+    }
+
+    @Test
+    public void divideSumsToCount() {
+        ChessGame game = new ChessGame();
+        long before = game.getZobristKey();
+        Map<String, Long> divide = Perft.divide(game, 3);
+
+        assertEquals(20, divide.size());
+        assertEquals(600, divide.get("e2e4").longValue());
+        assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(before, game.getZobristKey());
+    }
+
+    @Test
+    public void parallelCountMatches() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        ParallelPerft perft = new ParallelPerft();
+
+        assertEquals(4085603, perft.count(game, 4));
+        assertEquals(Perft.divide(game, 2), perft.divide(game, 2));
+    }
+
+    @Test
+    public void validateFlagsWrongCounts() {
+        ChessGame start = new ChessGame();
+        List<ParallelPerft.Outcome> outcomes = new ParallelPerft().validate(List.of(
+                new ParallelPerft.Case("start", start, 5, 4865609),
+                new ParallelPerft.Case("promotions", ChessGame.fromFen(PROMOTIONS), 4, 182838),
+                new ParallelPerft.Case("wrong", start, 2, 401)));
+
+        assertTrue(outcomes.get(0).passed());
+        assertTrue(outcomes.get(1).passed());
+        assertFalse(outcomes.get(2).passed());
+        assertEquals(400, outcomes.get(2).nodes());
+    }
+}
@@ -0,0 +1,36 @@
+package chess;
+
+/**
+ * Move and square helpers shared by the chess tests.
+ */
+final class TestMoves {
+
+    private TestMoves() {
+    }
+
+    /**
+     * Plays the move from one square to another, each given as row and
+     * column from 1 to 8, without promotion.
+     */
+    static void move(ChessGame game, int fromRow, int fromCol, int toRow, int toCol) throws InvalidMoveException {
+        game.makeMove(new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null));
+    }
+
+    /**
+     * @return the square index of a square name such as e4
+     */
+    static int square(String name) {
+        return Bitboards.square(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+
+    /**
+     * @return the board set holding the named squares
+     */
+    static long squares(String... names) {
+        long set = 0;
+        for (String name : names) {
+            set |= Bitboards.bit(square(name));
+        }
+        return set;
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static chess.TestMoves.move;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTests {
+
+    @Test
+    public void transpositionsShareKey() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        move(first, 1, 7, 3, 6);
+        move(first, 8, 7, 6, 6);
+        move(first, 1, 2, 3, 3);
+
+        ChessGame second = new ChessGame();
+        move(second, 1, 2, 3, 3);
+        move(second, 8, 7, 6, 6);
+        move(second, 1, 7, 3, 6);
+
+        assertEquals(first.getZobristKey(), second.getZobristKey());
+    }
+
+    @Test
+    public void turnChangesKey() {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(start, game.getZobristKey());
+    }
+
+    @Test
+    public void castlingRightsChangeKey() throws InvalidMoveException {
+        ChessGame rookShuffle = new ChessGame();
+        move(rookShuffle, 2, 8, 4, 8);
+        move(rookShuffle, 7, 8, 5, 8);
+        move(rookShuffle, 1, 8, 3, 8);
+        move(rookShuffle, 8, 7, 6, 6);
+        move(rookShuffle, 3, 8, 1, 8);
+        move(rookShuffle, 6, 6, 8, 7);
+
+        ChessGame knightShuffle = new ChessGame();
+        move(knightShuffle, 2, 8, 4, 8);
+        move(knightShuffle, 7, 8, 5, 8);
+        move(knightShuffle, 1, 7, 3, 6);
+        move(knightShuffle, 8, 7, 6, 6);
+        move(knightShuffle, 3, 6, 1, 7);
+        move(knightShuffle, 6, 6, 8, 7);
+
+        assertEquals(rookShuffle.getBoard(), knightShuffle.getBoard());
+        assertNotEquals(rookShuffle.getZobristKey(), knightShuffle.getZobristKey());
+    }
+
+    @Test
+    public void keySurvivesSerialization() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        move(game, 2, 5, 4, 5);
+
+        Gson gson = new Gson();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(game.getZobristKey(), copy.getZobristKey());
+    }
+}
@@ -0,0 +1,102 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import chess.pgn.San;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTests {
+
+    private static List<ChessMove> line(String... sans) {
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = new ArrayList<>();
+        for (String san : sans) {
+            ChessMove move = San.parse(game, san);
+            moves.add(move);
+            game.makeMove(game.findLegalMove(move));
+        }
+        return moves;
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), null);
+    }
+
+    private static OpeningBook build(Path file) throws InvalidMoveException, IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(4);
+        builder.add(line("e4", "e5", "Nf3", "Nc6", "Bb5"));
+        builder.add(line("e4", "e5", "Nf3", "Nf6"));
+        builder.add(line("e4", "c5"));
+        builder.add(line("d4", "d5"));
+        // transposes into the position after 1. e4 e5 2. Nf3
+        builder.add(line("Nf3", "e5", "e4"));
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    @Test
+    public void findsMovesMostPlayedFirst(@TempDir Path dir) throws Exception {
+        OpeningBook book = build(dir.resolve("book.bin"));
+        ChessGame game = new ChessGame();
+        int[] moves = new int[8];
+        int[] weights = new int[8];
+
+        assertEquals(3, book.find(game.getZobristKey(), moves, weights));
+        assertEquals(move(2, 5, 4, 5), PackedMove.toChessMove(moves[0]));
+        assertArrayEquals(new int[]{3, 1, 1}, Arrays.copyOf(weights, 3));
+        assertEquals(moves[0], book.bestMove(game));
+
+        for (String san : new String[]{"e4", "e5", "Nf3"}) {
+            game.makeMove(game.findLegalMove(San.parse(game, san)));
+        }
+        assertEquals(2, book.find(game.getZobristKey(), moves, null));
+        assertEquals(move(8, 2, 6, 3), PackedMove.toChessMove(book.bestMove(game)));
+
+        // the fifth ply of the first line is beyond the book's depth
+        game.makeMove(book.bestMove(game));
+        assertEquals(PackedMove.NONE, book.bestMove(game));
+        assertEquals(PackedMove.NONE, book.pickMove(game, new SplittableRandom(1)));
+    }
+
+    @Test
+    public void picksEveryBookMoveSometimes(@TempDir Path dir) throws Exception {
+        OpeningBook book = build(dir.resolve("book.bin"));
+        ChessGame game = new ChessGame();
+        SplittableRandom random = new SplittableRandom(7);
+        int[] picks = new int[3];
+        int[] moves = new int[3];
+        book.find(game.getZobristKey(), moves, null);
+        for (int i = 0; i < 500; i++) {
+            int pick = book.pickMove(game, random);
+            for (int j = 0; j < 3; j++) {
+                if (moves[j] == pick) {
+                    picks[j]++;
+                }
+            }
+        }
+        assertEquals(500, picks[0] + picks[1] + picks[2]);
+        assertTrue(picks[0] > picks[1] && picks[0] > picks[2], Arrays.toString(picks));
+        assertTrue(picks[1] > 0 && picks[2] > 0);
+    }
+
+    @Test
+    public void rejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("notes.txt");
+        Files.writeString(file, "not a book, just some text here");
+        assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
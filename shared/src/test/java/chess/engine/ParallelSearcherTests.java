@@ -0,0 +1,49 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSearcherTests {
+
+    private static ChessGame openingPosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        return game;
+    }
+
+    @Test
+    public void deterministicModeRepeats() throws InvalidMoveException {
+        ChessGame game = openingPosition();
+        SearchResult first;
+        SearchResult second;
+        try (ParallelSearcher searcher = ParallelSearcher.deterministic()) {
+            first = searcher.search(game, SearchLimits.depth(5));
+        }
+        try (ParallelSearcher searcher = ParallelSearcher.deterministic()) {
+            second = searcher.search(game, SearchLimits.depth(5));
+        }
+        assertEquals(first, second);
+        assertEquals(openingPosition(), game);
+    }
+
+    @Test
+    public void helpersReturnALegalMove() throws InvalidMoveException {
+        ChessGame game = openingPosition();
+        try (ParallelSearcher searcher = new ParallelSearcher(4)) {
+            for (int i = 0; i < 3; i++) {
+                SearchResult result = searcher.search(game, SearchLimits.depth(5));
+                assertEquals(5, result.depth());
+                assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+            }
+            assertTrue(searcher.getTable().getHits() > 0);
+        }
+        assertEquals(openingPosition(), game);
+    }
+}
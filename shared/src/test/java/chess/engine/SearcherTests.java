@@ -0,0 +1,83 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearcherTests {
+
+    private static void put(ChessBoard board, int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, type));
+    }
+
+    private static ChessGame backRankMate() {
+        ChessBoard board = new ChessBoard();
+        put(board, 1, 7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        put(board, 1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        put(board, 8, 7, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        for (int col = 6; col <= 8; col++) {
+            put(board, 7, col, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        }
+        put(board, 6, 3, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        return game;
+    }
+
+    @Test
+    public void findsMateInOne() {
+        ChessGame game = backRankMate();
+        long key = game.getZobristKey();
+
+        SearchResult result = new Searcher().search(game, SearchLimits.depth(4));
+
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.bestMove());
+        assertEquals(Searcher.MATE - 1, result.score());
+        assertTrue(result.isMate());
+        assertEquals(key, game.getZobristKey());
+        assertEquals(0, game.getUndoDepth());
+    }
+
+    @Test
+    public void winsHangingQueen() {
+        ChessBoard board = new ChessBoard();
+        put(board, 1, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        put(board, 3, 3, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        put(board, 8, 5, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        put(board, 5, 4, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        put(board, 7, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        SearchResult result = new Searcher().search(game, SearchLimits.depth(3));
+
+        assertEquals(new ChessMove(ChessPosition.of(3, 3), ChessPosition.of(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 200);
+    }
+
+    @Test
+    public void stopsWithinBudget() {
+        ChessGame game = new ChessGame();
+        SearchResult result = new Searcher().search(game, SearchLimits.nodes(20_000));
+
+        assertNotNull(result.bestMove());
+        assertTrue(result.depth() >= 1);
+        assertTrue(result.nodes() < 20_000 + 2048, "nodes: " + result.nodes());
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void noMoveWhenMated() throws Exception {
+        ChessGame game = backRankMate();
+        game.makeMove(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null));
+
+        SearchResult result = new Searcher().search(game, SearchLimits.depth(3));
+        assertNull(result.bestMove());
+        assertEquals(-Searcher.MATE, result.score());
+    }
+}
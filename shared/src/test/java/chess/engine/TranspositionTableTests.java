@@ -0,0 +1,76 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTests {
+
+    @Test
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        assertEquals(0, table.probe(key));
+
+        table.store(key, 4242, -Searcher.MATE + 7, 9, TranspositionTable.UPPER_BOUND);
+        long entry = table.probe(key);
+        assertEquals(4242, TranspositionTable.move(entry));
+        assertEquals(-Searcher.MATE + 7, TranspositionTable.score(entry));
+        assertEquals(9, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.bound(entry));
+
+        // same slot, different position
+        assertEquals(0, table.probe(key + table.getCapacity()));
+        assertEquals(1, table.getHits());
+        assertEquals(1, table.getMisses());
+        assertEquals(1, table.getCollisions());
+    }
+
+    @Test
+    public void deeperEntriesSurviveUntilNextSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 77;
+        long other = key + table.getCapacity();
+        table.store(key, 1, 10, 8, TranspositionTable.EXACT);
+        table.store(other, 2, 20, 3, TranspositionTable.EXACT);
+        assertEquals(1, TranspositionTable.move(table.probe(key)));
+
+        table.newSearch();
+        table.store(other, 2, 20, 3, TranspositionTable.EXACT);
+        assertEquals(2, TranspositionTable.move(table.probe(other)));
+    }
+
+    @Test
+    public void concurrentWritersNeverReturnAnotherPositionsEntry() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        // four keys per slot, so writers keep overwriting each other
+        int keyCount = table.getCapacity() * 4;
+        AtomicBoolean mismatch = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 2_000_000; i++) {
+                    long key = random.nextInt(keyCount) * 0x9E37_79B9_7F4A_7C15L;
+                    // every entry's move is derived from its key, so a torn read would show
+                    int move = (int) (key >>> 45) | 1;
+                    long entry = table.probe(key);
+                    if (entry != 0 && TranspositionTable.move(entry) != move) {
+                        mismatch.set(true);
+                    }
+                    table.store(key, move, i & 0x7FFF, i & 63, TranspositionTable.EXACT);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(mismatch.get());
+        assertTrue(table.getHits() > 0);
+    }
+}
@@ -0,0 +1,130 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTests {
+
+    private static final String ARCHIVE = """
+            [Event "Casual"]
+            [White "Alice"]
+            [Black "Bob \\"the Bold\\""]
+            [Result "1-0"]
+
+            1. e4 {king's pawn} e5 2. Bc4 (2. Nf3 Nc6 (2... d6) 3. Bb5) Nc6 $1
+            3. Qh5 Nf6?? 4. Qxf7# 1-0
+
+            [Event "Endgame"]
+            [SetUp "1"]
+            [FEN "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1"]
+
+            1.exd6 Kd7 ; the king walks over
+            % an escaped line
+            2. Ke2 *
+            """;
+
+    private static List<PgnGame> readAll(String text) throws IOException {
+        List<PgnGame> games = new ArrayList<>();
+        try (PgnReader reader = new PgnReader(new StringReader(text))) {
+            for (PgnGame game = reader.next(); game != null; game = reader.next()) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    private static String writeAll(List<PgnGame> games) throws IOException {
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (PgnGame game : games) {
+                writer.write(game);
+            }
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void readsTagsMovesAndResults() throws IOException, InvalidMoveException {
+        List<PgnGame> games = readAll(ARCHIVE);
+        assertEquals(2, games.size());
+
+        PgnGame mate = games.get(0);
+        assertEquals("Bob \"the Bold\"", mate.tag("Black"));
+        assertEquals(7, mate.moves().size());
+        assertEquals(PgnGame.WHITE_WINS, mate.result());
+        assertEquals(ChessGame.GameStatus.CHECKMATE, mate.replay().getStatus());
+
+        PgnGame endgame = games.get(1);
+        assertEquals(3, endgame.moves().size());
+        assertEquals(PgnGame.UNFINISHED, endgame.result());
+        assertEquals("8/3k4/3P4/8/8/8/4K3/8 b - - 2 2", endgame.replay().toFen());
+    }
+
+    @Test
+    public void writesExportFormat() throws IOException {
+        String text = writeAll(readAll(ARCHIVE));
+        assertTrue(text.startsWith("""
+                [Event "Casual"]
+                [Site "?"]
+                [Date "????.??.??"]
+                [Round "?"]
+                [White "Alice"]
+                [Black "Bob \\"the Bold\\""]
+                [Result "1-0"]
+
+                1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0
+
+                """), text);
+        assertTrue(text.contains("[FEN \"4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1\"]"), text);
+        // the export adds the missing roster tags, after which it is stable
+        assertEquals(text, writeAll(readAll(text)));
+        assertEquals(readAll(ARCHIVE).get(0).moves(), readAll(text).get(0).moves());
+    }
+
+    @Test
+    public void longGamesWrapAndRoundTrip() throws IOException {
+        ChessGame game = new ChessGame();
+        int[] buffer = new int[ChessGame.MAX_MOVES];
+        List<ChessMove> moves = new ArrayList<>();
+        for (int ply = 0; ply < 150; ply++) {
+            int count = game.generateLegalMoves(buffer);
+            if (count == 0) {break;}
+            int move = buffer[(ply * 7) % count];
+            moves.add(PackedMove.toChessMove(move));
+            game.makeMove(move);
+        }
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Long");
+        PgnGame written = new PgnGame(tags, moves, PgnGame.DRAW);
+
+        String text = writeAll(List.of(written));
+        for (String line : text.split("\n")) {
+            assertTrue(line.length() <= 80, line);
+        }
+        PgnGame read = readAll(text).get(0);
+        assertEquals(moves, read.moves());
+        assertEquals(PgnGame.DRAW, read.result());
+    }
+
+    @Test
+    public void reportsTheLineOfAnIllegalMove() {
+        String text = "[Event \"Bad\"]\n\n1. e4 e5\n2. Ke3 *\n";
+        PgnFormatException e = assertThrows(PgnFormatException.class, () -> readAll(text));
+        assertEquals(4, e.getLine());
+        assertThrows(PgnFormatException.class, () -> readAll("[Event \"Open\n1. e4 *"));
+        assertThrows(PgnFormatException.class, () -> readAll("1. e4 {never closed"));
+    }
+}
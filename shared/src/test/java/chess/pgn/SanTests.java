@@ -0,0 +1,73 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SanTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static ChessMove move(String from, String to, ChessPiece.PieceType promotion) {
+        return new ChessMove(square(from), square(to), promotion);
+    }
+
+    private static ChessMove move(String from, String to) {
+        return move(from, to, null);
+    }
+
+    private static ChessPosition square(String name) {
+        return ChessPosition.of(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+
+    private static void assertSan(String expected, String fen, ChessMove move) {
+        ChessGame game = ChessGame.fromFen(fen);
+        assertEquals(expected, San.format(game, move));
+        assertEquals(fen, game.toFen());
+        assertEquals(move, San.parse(game, expected));
+    }
+
+    @Test
+    public void formatsEveryKindOfMove() {
+        String start = new ChessGame().toFen();
+        assertSan("e4", start, move("e2", "e4"));
+        assertSan("Nf3", start, move("g1", "f3"));
+        assertSan("O-O", KIWIPETE, move("e1", "g1"));
+        assertSan("O-O-O", KIWIPETE, move("e1", "c1"));
+        assertSan("dxe6", KIWIPETE, move("d5", "e6"));
+        assertSan("Bxa6", KIWIPETE, move("e2", "a6"));
+        assertSan("exd6", "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", move("e5", "d6"));
+        assertSan("e8=Q#", "k7/4P3/1K6/8/8/8/8/8 w - - 0 1", move("e7", "e8", ChessPiece.PieceType.QUEEN));
+        assertSan("e8=N", "k7/4P3/1K6/8/8/8/8/8 w - - 0 1", move("e7", "e8", ChessPiece.PieceType.KNIGHT));
+    }
+
+    @Test
+    public void disambiguatesByFileThenRankThenBoth() {
+        assertSan("Rad1", "4k2K/8/8/8/8/8/8/R6R w - - 0 1", move("a1", "d1"));
+        assertSan("Rhd1", "4k2K/8/8/8/8/8/8/R6R w - - 0 1", move("h1", "d1"));
+        assertSan("R1a3", "4k2K/8/8/R7/8/8/8/R7 w - - 0 1", move("a1", "a3"));
+        assertSan("R5a3", "4k2K/8/8/R7/8/8/8/R7 w - - 0 1", move("a5", "a3"));
+        assertSan("Qa1b2+", "7k/8/8/8/7K/Q7/8/Q1Q5 w - - 0 1", move("a1", "b2"));
+    }
+
+    @Test
+    public void parsesLooseNotation() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        assertEquals(move("e1", "g1"), San.parse(game, "0-0"));
+        assertEquals(move("e2", "a6"), San.parse(game, "Bxa6!?"));
+        assertEquals(move("e2", "a6"), San.parse(game, "Ba6"));
+        assertEquals(move("e5", "f7"), San.parse(game, "Nxf7"));
+
+        ChessGame promotion = ChessGame.fromFen("k7/4P3/1K6/8/8/8/8/8 w - - 0 1");
+        assertEquals(move("e7", "e8", ChessPiece.PieceType.ROOK), San.parse(promotion, "e8R"));
+
+        assertNull(San.parse(ChessGame.fromFen("4k2K/8/8/8/8/8/8/R6R w - - 0 1"), "Rd1"));
+        assertNull(San.parse(new ChessGame(), "e5"));
+        assertNull(San.parse(new ChessGame(), "Zz9"));
+        assertNull(San.parse(new ChessGame(), ""));
+    }
+}